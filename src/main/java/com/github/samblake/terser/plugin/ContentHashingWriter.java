@@ -0,0 +1,185 @@
+package com.github.samblake.terser.plugin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.Minification;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.io.FilenameUtils.indexOfExtension;
+
+/**
+ * Puts a hash of the minified content into the name of every target, for example {@code app.3f9a1c2b.min.js}, so the
+ * files can be cached indefinitely. The {@code sourceMappingURL} comment and the {@code file} of the source map are
+ * updated to the new name. On {@link #close()} a JSON manifest mapping the logical names to the hashed ones, both
+ * relative to the target directory, is written; entries of an existing manifest are kept so incremental builds add
+ * to it.
+ */
+class ContentHashingWriter implements TargetWriter {
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final TargetWriter delegate;
+    private final Path targetDirectory;
+    private final Path manifest;
+    private final String suffix;
+    private final int hashLength;
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+
+    ContentHashingWriter(final TargetWriter delegate, final Path targetDirectory, final Path manifest,
+            final String suffix, final int hashLength) {
+
+        if (hashLength < 1 || hashLength > 64) {
+            throw new IllegalArgumentException("Invalid hash length " + hashLength);
+        }
+
+        this.delegate = requireNonNull(delegate);
+        this.targetDirectory = requireNonNull(targetDirectory);
+        this.manifest = requireNonNull(manifest);
+        this.suffix = suffix == null ? "" : suffix;
+        this.hashLength = hashLength;
+    }
+
+    @Override
+    public void write(final Minification minification) {
+        final String result = minification.getResult()
+                .orElseThrow(() -> new IllegalStateException(
+                        "No result for minification. Cannot write minification (" + minification + ")"));
+
+        final Path target = minification.getTarget();
+        final String name = target.getFileName().toString();
+        final String hashedName = insertHash(name, suffix,
+                hash(result.getBytes(minification.getContext().getCharset()), hashLength));
+        final Path hashedTarget = target.resolveSibling(hashedName);
+
+        names.put(toManifestName(target), toManifestName(hashedTarget));
+
+        delegate.write(ImmutableMinification.copyOf(minification)
+                .withTarget(hashedTarget)
+                .withResult(rewriteSourceMappingUrl(result, name, hashedName))
+                .withSourceMap(minification.getSourceMap().map(map -> rewriteFile(map, name, hashedName))));
+    }
+
+    /**
+     * Inserts the hash before the suffix, or before the extension when there is no suffix.
+     */
+    static String insertHash(final String name, final String suffix, final String hash) {
+        final int extensionIndex = indexOfExtension(name);
+        String base = extensionIndex == -1 ? name : name.substring(0, extensionIndex);
+        final String extension = extensionIndex == -1 ? "" : name.substring(extensionIndex);
+
+        String after = extension;
+        if (!suffix.isEmpty() && base.endsWith("." + suffix)) {
+            base = base.substring(0, base.length() - suffix.length() - 1);
+            after = "." + suffix + extension;
+        }
+        return base + "." + hash + after;
+    }
+
+    static String hash(final byte[] content, final int length) {
+        try {
+            final byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+            final StringBuilder hex = new StringBuilder(length);
+            for (int i = 0; hex.length() < length; i++) {
+                hex.append(HEX[(digest[i / 2] >> (i % 2 == 0 ? 4 : 0)) & 0xf]);
+            }
+            return hex.toString();
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String rewriteSourceMappingUrl(final String result, final String name, final String hashedName) {
+        final Pattern url = Pattern.compile("(//# sourceMappingURL=(?:\\S*/)?)" + Pattern.quote(name + MAP_EXTENSION)
+                + "(\\s*)$");
+        final Matcher matcher = url.matcher(result);
+        if (!matcher.find()) {
+            return result;
+        }
+        return result.substring(0, matcher.start())
+                + matcher.group(1) + hashedName + MAP_EXTENSION + matcher.group(2);
+    }
+
+    private static String rewriteFile(final String sourceMap, final String name, final String hashedName) {
+        try {
+            final JsonNode map = MAPPER.readTree(sourceMap);
+            if (!(map instanceof ObjectNode) || !map.path("file").asText().endsWith(name)) {
+                return sourceMap;
+            }
+
+            final String file = map.get("file").asText();
+            ((ObjectNode)map).put("file", file.substring(0, file.length() - name.length()) + hashedName);
+            return MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsString(map);
+        }
+        catch (IOException e) {
+            // Not a map we understand, leave it as it is
+            return sourceMap;
+        }
+    }
+
+    private String toManifestName(final Path target) {
+        return targetDirectory.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public int getWrittenFiles() {
+        return delegate.getWrittenFiles();
+    }
+
+    @Override
+    public int getUnchangedFiles() {
+        return delegate.getUnchangedFiles();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+        writeManifest();
+    }
+
+    private void writeManifest() {
+        final Map<String, String> entries = new TreeMap<>(readManifest());
+        entries.putAll(names);
+
+        try {
+            Files.createDirectories(manifest.toAbsolutePath().getParent());
+            Files.write(manifest, MAPPER.writeValueAsBytes(entries));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Map<String, String> readManifest() {
+        if (!Files.isRegularFile(manifest)) {
+            return new TreeMap<>();
+        }
+
+        try {
+            final Map<String, String> existing = new TreeMap<>();
+            MAPPER.readTree(manifest.toFile()).fields()
+                    .forEachRemaining(entry -> existing.put(entry.getKey(), entry.getValue().asText()));
+            return existing;
+        }
+        catch (IOException e) {
+            // A damaged manifest is replaced with the entries of this build
+            return new TreeMap<>();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.github.samblake.terser.plugin;
 
+import com.github.samblake.terser.plugin.minifier.CompilationSettings;
+import com.github.samblake.terser.plugin.minifier.ImmutableCompilationSettings;
 import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
 import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
 import com.github.samblake.terser.plugin.minifier.Minification;
 import com.github.samblake.terser.plugin.minifier.MinificationContext;
-import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.Scanner;
 
 import java.io.File;
 import java.nio.charset.Charset;
@@ -15,9 +17,12 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.io.FilenameUtils.indexOfExtension;
 
@@ -31,29 +36,108 @@ class MinificationInitializer {
     Set<Minification> getMinification() {
         final Set<ImmutableMinification.Builder> minifications = new HashSet<>();
 
-        final MinificationContext context = ImmutableMinificationContext.builder()
-                .terserSource(terserMojo.getTerserSrc())
-                .sourceMapSource(Optional.ofNullable(terserMojo.getSourceMapSrc()))
-                .charset(Charset.forName(terserMojo.getEncoding()))
-                .log(terserMojo.getLog())
-                .isVerbose(terserMojo.isVerbose())
-                .options(terserMojo.getOptions())
-                .build();
+        final MinificationContext context = getContext();
+        final MinificationContext lightweightContext = ImmutableMinificationContext.copyOf(context)
+                .withIsLightweight(true);
+        final List<PathPattern> lightweightPatterns = terserMojo.getLightweightIncludes().stream()
+                .map(PathPattern::new)
+                .collect(toList());
         
         addStaticFiles(minifications);
         addPatternMatchedFiles(minifications);
         
         return minifications.stream()
                 .map(minification -> minification.context(context).build())
+                .map(minification -> isLightweight(minification.getSource(), lightweightPatterns)
+                        ? minification.withContext(lightweightContext)
+                        : minification.withVariants(getVariants(minification)))
                 .collect(toSet());
     }
 
+    /**
+     * Passes each file to minify to the consumer as soon as it is found, so the files can be minified while the rest
+     * are still being scanned. The consumer is called from several threads at once. Only for full builds without
+     * lightweight files, where each file is known to be minified by Terser as soon as it is found.
+     */
+    void findMinifications(final Consumer<Minification> consumer) {
+        final MinificationContext context = getContext();
+        final Set<Path> found = ConcurrentHashMap.newKeySet();
+        final Consumer<Path> foundFile = sourceFile -> {
+            if (found.add(sourceFile)) {
+                final ImmutableMinification minification = toMinificationBuilder(sourceFile).context(context).build();
+                consumer.accept(minification.withVariants(getVariants(minification)));
+            }
+        };
+
+        terserMojo.getJsSourceFiles().stream()
+                .map(this::removeLeadingSlash)
+                .map(this::resolveAgainstSourceDirectory)
+                .filter(Files::exists)
+                .forEach(foundFile);
+        getIncludesScanner().scan(foundFile);
+    }
+
+    /**
+     * Whether only comments and whitespace are to be removed from the file, in which case it has no variants.
+     */
+    private boolean isLightweight(final Path sourceFile, final List<PathPattern> patterns) {
+        if (patterns.isEmpty()) {
+            return false;
+        }
+        final Path relativePath = terserMojo.getSourceDir().toPath().toAbsolutePath()
+                .relativize(sourceFile.toAbsolutePath());
+        return patterns.stream().anyMatch(pattern -> pattern.matches(relativePath));
+    }
+
+    /**
+     * The further outputs configured for every source, each written next to the main output with its own suffix.
+     */
+    private List<Minification> getVariants(final Minification minification) {
+        return terserMojo.getVariants().stream()
+                .map(variant -> ImmutableMinification.builder()
+                        .source(minification.getSource())
+                        .target(determineTargetPath(minification.getSource(), variant.getSuffix()))
+                        .variant(variant.getName())
+                        .context(ImmutableMinificationContext.copyOf(minification.getContext())
+                                .withOptions(terserMojo.getTerserOptions(
+                                        variant.getOptions() == null ? "{}" : variant.getOptions())))
+                        .build())
+                .collect(toList());
+    }
+
+    /**
+     * The context shared by all minifications, available before the files are discovered.
+     */
+    MinificationContext getContext() {
+        return ImmutableMinificationContext.builder()
+                .terserSource(Optional.ofNullable(terserMojo.getTerserSrc()))
+                .sourceMapSource(Optional.ofNullable(terserMojo.getSourceMapSrc()))
+                .charset(Charset.forName(terserMojo.getEncoding()))
+                .log(terserMojo.getLog())
+                .isVerbose(terserMojo.isVerbose())
+                .options(terserMojo.getTerserOptions())
+                .splitSize(terserMojo.getSplitSize())
+                .compilationSettings(getCompilationSettings())
+                .build();
+    }
+
+    private CompilationSettings getCompilationSettings() {
+        return ImmutableCompilationSettings.builder()
+                .compilerThreads(Optional.ofNullable(terserMojo.getCompilerThreads()))
+                .compilationThreshold(Optional.ofNullable(terserMojo.getCompilationThreshold()))
+                .multiTier(Optional.ofNullable(terserMojo.getMultiTier()))
+                .backgroundCompilation(Optional.ofNullable(terserMojo.getBackgroundCompilation()))
+                .warmUpIterations(terserMojo.getWarmUpIterations())
+                .build();
+    }
+
     private void addStaticFiles(final Set<ImmutableMinification.Builder> sourceFiles) {
         // Add statically added files
         terserMojo.getJsSourceFiles().stream()
                 .map(this::removeLeadingSlash)
                 .map(this::resolveAgainstSourceDirectory)
                 .filter(Files::exists)
+                .filter(this::hasDelta)
                 .map(this::toMinificationBuilder)
                 .forEach(sourceFiles::add);
     }
@@ -64,12 +148,62 @@ class MinificationInitializer {
 
     private void addPatternMatchedFiles(final Set<ImmutableMinification.Builder> sourceFiles) {
         // Add pattern matched files
-        if (!terserMojo.getJsSourceIncludes().isEmpty()) {
-            Stream.of(getIncludesDirectoryScanner().getIncludedFiles())
+        if (terserMojo.getJsSourceIncludes().isEmpty()) {
+            return;
+        }
+
+        if (isIncremental()) {
+            // Only the files changed since the last incremental build
+            Stream.of(getIncrementalScanner().getIncludedFiles())
                     .map(this::resolveAgainstSourceDirectory)
                     .map(this::toMinificationBuilder)
                     .forEach(sourceFiles::add);
         }
+        else {
+            getIncludesScanner().scan().stream()
+                    .map(this::toMinificationBuilder)
+                    .forEach(sourceFiles::add);
+        }
+    }
+
+    /**
+     * Whether only the files changed since the last build are minified. Not when writing an archive, which is
+     * written anew on every build, so would otherwise lose the entries of the unchanged files.
+     */
+    private boolean isIncremental() {
+        return terserMojo.getTargetArchive() == null && terserMojo.getBuildContext() != null
+                && terserMojo.getBuildContext().isIncremental();
+    }
+
+    private boolean hasDelta(final Path sourceFile) {
+        return !isIncremental() || terserMojo.getBuildContext().hasDelta(sourceFile.toFile());
+    }
+
+    private Scanner getIncrementalScanner() {
+        final Scanner scanner = terserMojo.getBuildContext().newScanner(terserMojo.getSourceDir(), false);
+        scanner.setIncludes(checkFileSeparator(terserMojo.getJsSourceIncludes()));
+        scanner.setExcludes(checkFileSeparator(terserMojo.getJsSourceExcludes()));
+        scanner.addDefaultExcludes();
+        scanner.scan();
+        return scanner;
+    }
+
+    /**
+     * If '/' is used in the given paths, and the system file separator is not
+     * '/', replace '/' with the {@link File#separator}. This is required for
+     * using a plexus {@link Scanner}
+     */
+    private String[] checkFileSeparator(final List<String> paths) {
+        return paths.stream()
+                .map(this::replaceFileSeparator)
+                .map(this::removeLeadingSlash)
+                .toArray(String[]::new);
+    }
+
+    private String replaceFileSeparator(String path) {
+        return File.separatorChar != '/' && path.contains("/")
+                ? path.replace("/", File.separator)
+                : path;
     }
 
     private ImmutableMinification.Builder toMinificationBuilder(final Path sourceFile) {
@@ -79,8 +213,11 @@ class MinificationInitializer {
     }
 
     private Path determineTargetPath(final Path sourceFile) {
+        return determineTargetPath(sourceFile, terserMojo.getSuffix() == null ? "" : terserMojo.getSuffix());
+    }
+
+    private Path determineTargetPath(final Path sourceFile, final String suffix) {
         final Path relativePath = getRelativePath(sourceFile);
-        final String suffix = terserMojo.getSuffix() == null ? "" : terserMojo.getSuffix();
 
         String inName = sourceFile.getFileName().toString();
         String outName = suffix.isEmpty() ? inName : insertSuffix(inName, suffix);
@@ -103,32 +240,9 @@ class MinificationInitializer {
         return subject;
     }
 
-    private DirectoryScanner getIncludesDirectoryScanner() {
-        final DirectoryScanner scanner = new DirectoryScanner();
-        scanner.setIncludes(checkFileSeparator(terserMojo.getJsSourceIncludes()));
-        scanner.setExcludes(checkFileSeparator(terserMojo.getJsSourceExcludes()));
-        scanner.addDefaultExcludes();
-        scanner.setBasedir(terserMojo.getSourceDir());
-        scanner.scan();
-        return scanner;
-    }
-
-    /**
-     * If '/' is used in the given paths, and the system file separator is not
-     * '/', replace '/' with the {@link File#separator}. This is required for
-     * using {@link DirectoryScanner}
-     */
-    private String[] checkFileSeparator(final List<String> paths) {
-        return paths.stream()
-                .map(this::replaceFileSeparator)
-                .map(this::removeLeadingSlash)
-                .toArray(String[]::new);
-    }
-
-    private String replaceFileSeparator(String path) {
-        return File.separatorChar != '/' && path.contains("/")
-                ? path.replace("/", File.separator)
-                : path;
+    private SourceFileScanner getIncludesScanner() {
+        return new SourceFileScanner(terserMojo.getSourceDir().toPath(),
+                terserMojo.getJsSourceIncludes(), terserMojo.getJsSourceExcludes());
     }
 
     private Path getRelativePath(final Path sourceFile) {
@@ -0,0 +1,206 @@
+package com.github.samblake.terser.plugin;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.MojoDescriptorCreator;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.Parameter;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.configurator.BasicComponentConfigurator;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluationException;
+import org.codehaus.plexus.component.configurator.expression.ExpressionEvaluator;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Configures a {@link TerserMojo} for each {@code terser} execution of a module, the way Maven would configure the
+ * execution itself: the execution and plugin configuration is completed with the defaults of the goal's descriptor and
+ * applied by Maven's component configurator, evaluating expressions against the module. Every parameter of the goal is
+ * read, and a configuration element the goal doesn't know fails the build rather than being dropped.
+ * <p>
+ * The parameters of the worker pool are taken from the {@code terser-aggregate} goal, a module configuring them is
+ * warned about. The {@code terser.skip} property, meant to skip the per-module executions, doesn't apply here, while
+ * an execution configured with {@code skip} is left out.
+ */
+class ModuleConfigurationReader {
+    static final String GOAL = "terser";
+    private static final String SKIP = "skip";
+    private static final List<String> POOL_PARAMETERS = Arrays.asList("threads", "failurePolicy", "recycleAfterFiles",
+            "recycleAfterBytes", "recycleAfterHeapGrowth");
+
+    private final MavenProject project;
+    private final MavenSession session;
+    private final MojoDescriptor mojoDescriptor;
+    private final Log log;
+
+    ModuleConfigurationReader(final MavenProject project, final MavenSession session,
+            final MojoDescriptor mojoDescriptor, final Log log) {
+
+        this.project = requireNonNull(project);
+        this.session = requireNonNull(session);
+        this.mojoDescriptor = requireNonNull(mojoDescriptor);
+        this.log = requireNonNull(log);
+    }
+
+    List<TerserMojo> getTerserMojos() throws MojoExecutionException {
+        final List<TerserMojo> mojos = new ArrayList<>();
+
+        final Plugin plugin = project.getPlugin(TerserAggregateMojo.PLUGIN_KEY);
+        if (plugin == null) {
+            return mojos;
+        }
+
+        final Xpp3Dom pluginConfiguration = (Xpp3Dom)plugin.getConfiguration();
+        for (PluginExecution execution : plugin.getExecutions()) {
+            if (!execution.getGoals().contains(GOAL)) {
+                continue;
+            }
+
+            final String name = format("%s execution %s", project.getArtifactId(), execution.getId());
+            final Xpp3Dom executionConfiguration = copy((Xpp3Dom)execution.getConfiguration());
+            checkParameters(name, executionConfiguration);
+
+            final Xpp3Dom configuration = Xpp3Dom.mergeXpp3Dom(executionConfiguration, copy(pluginConfiguration));
+            warnAboutPoolParameters(name, configuration);
+
+            final TerserMojo mojo = configure(name, complete(configuration));
+            if (mojo.isSkip()) {
+                log.info(format("Skipping %s, which is configured to be skipped.", name));
+            }
+            else {
+                mojos.add(mojo);
+            }
+        }
+
+        return mojos;
+    }
+
+    /**
+     * Fails on elements of the execution configuration that aren't parameters of the goal. Those of the plugin
+     * configuration may be meant for its other goals, so are left out as Maven does.
+     */
+    private void checkParameters(final String name, final Xpp3Dom configuration) throws MojoExecutionException {
+        final Set<String> names = new HashSet<>();
+        for (Parameter parameter : getParameters()) {
+            names.add(parameter.getName());
+            if (parameter.getAlias() != null) {
+                names.add(parameter.getAlias());
+            }
+        }
+
+        for (Xpp3Dom child : configuration.getChildren()) {
+            if (!names.contains(child.getName())) {
+                throw new MojoExecutionException(format("Unknown parameter %s of the %s goal configured in %s.",
+                        child.getName(), GOAL, name));
+            }
+        }
+    }
+
+    private void warnAboutPoolParameters(final String name, final Xpp3Dom configuration) {
+        for (String parameter : POOL_PARAMETERS) {
+            if (configuration.getChild(parameter) != null) {
+                log.warn(format("Ignoring %s configured in %s, the terser-aggregate goal uses its own.", parameter,
+                        name));
+            }
+        }
+    }
+
+    /**
+     * Completes the configuration with the defaults of the goal's descriptor, resolving aliases, as Maven does
+     * before configuring an execution.
+     */
+    private Xpp3Dom complete(final Xpp3Dom configuration) {
+        final Xpp3Dom defaults = MojoDescriptorCreator.convert(mojoDescriptor);
+        final Xpp3Dom completed = new Xpp3Dom("configuration");
+
+        for (Parameter parameter : getParameters()) {
+            Xpp3Dom value = configuration.getChild(parameter.getName());
+            if (value == null && parameter.getAlias() != null) {
+                value = configuration.getChild(parameter.getAlias());
+            }
+
+            // The terser.skip property is meant for the per-module executions this goal replaces
+            if (!SKIP.equals(parameter.getName())) {
+                value = Xpp3Dom.mergeXpp3Dom(value, defaults.getChild(parameter.getName()), Boolean.TRUE);
+            }
+
+            if (value == null) {
+                continue;
+            }
+
+            value = new Xpp3Dom(value, parameter.getName());
+            if (value.getAttribute("implementation") == null && parameter.getImplementation() != null) {
+                value.setAttribute("implementation", parameter.getImplementation());
+            }
+            completed.addChild(value);
+        }
+
+        return completed;
+    }
+
+    private TerserMojo configure(final String name, final Xpp3Dom configuration) throws MojoExecutionException {
+        final MavenSession moduleSession = session.clone();
+        moduleSession.setCurrentProject(project);
+
+        final ExpressionEvaluator evaluator =
+                new PluginParameterExpressionEvaluator(moduleSession, new MojoExecution(mojoDescriptor));
+
+        final TerserMojo mojo = new TerserMojo();
+        try {
+            checkRequiredParameters(name, configuration, evaluator);
+            new BasicComponentConfigurator().configureComponent(mojo, new XmlPlexusConfiguration(configuration),
+                    evaluator, mojoDescriptor.getPluginDescriptor().getClassRealm());
+        }
+        catch (ComponentConfigurationException | ExpressionEvaluationException e) {
+            throw new MojoExecutionException(format("Failed to configure %s: %s", name, e.getMessage()), e);
+        }
+        return mojo;
+    }
+
+    private void checkRequiredParameters(final String name, final Xpp3Dom configuration,
+            final ExpressionEvaluator evaluator) throws ExpressionEvaluationException, MojoExecutionException {
+
+        for (Parameter parameter : getParameters()) {
+            if (!parameter.isRequired()) {
+                continue;
+            }
+
+            final Xpp3Dom value = configuration.getChild(parameter.getName());
+            if (value == null || value.getChildCount() == 0 && evaluate(value, evaluator) == null) {
+                throw new MojoExecutionException(format("Required parameter %s of the %s goal is missing in %s.",
+                        parameter.getName(), GOAL, name));
+            }
+        }
+    }
+
+    private static Object evaluate(final Xpp3Dom value, final ExpressionEvaluator evaluator)
+            throws ExpressionEvaluationException {
+
+        final Object evaluated = value.getValue() == null ? null : evaluator.evaluate(value.getValue());
+        final String defaultValue = value.getAttribute("default-value");
+        return evaluated == null && defaultValue != null ? evaluator.evaluate(defaultValue) : evaluated;
+    }
+
+    private List<Parameter> getParameters() {
+        return mojoDescriptor.getParameters() == null ? new ArrayList<>() : mojoDescriptor.getParameters();
+    }
+
+    private static Xpp3Dom copy(final Xpp3Dom dom) {
+        return dom == null ? new Xpp3Dom("configuration") : new Xpp3Dom(dom);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.samblake.terser.plugin;
+
+/**
+ * A further output written for every minified file, with its own suffix and Terser options, minified from the same
+ * parse as the main output.
+ */
+public class OutputVariant {
+    private String name;
+    private String suffix;
+    private String options;
+
+    public OutputVariant() {
+    }
+
+    public OutputVariant(String name, String suffix, String options) {
+        this.name = name;
+        this.suffix = suffix;
+        this.options = options;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getSuffix() {
+        return this.suffix;
+    }
+
+    public void setSuffix(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String getOptions() {
+        return this.options;
+    }
+
+    public void setOptions(String options) {
+        this.options = options;
+    }
+
+    @Override
+    public String toString() {
+        return "OutputVariant{" +
+                "name='" + name + '\'' +
+                ", suffix='" + suffix + '\'' +
+                ", options='" + options + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.samblake.terser.plugin;
+
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.regex.Pattern;
+
+/**
+ * A precompiled include/exclude pattern with the semantics of the plexus {@code DirectoryScanner}: {@code *} and
+ * {@code ?} match within a single path segment, {@code **} matches zero or more segments and a trailing separator is
+ * short for {@code /**}. Paths are matched relative to the scanned directory.
+ */
+class PathPattern implements PathMatcher {
+    private static final String ANY_SEGMENTS = "**";
+
+    private final String pattern;
+    private final Pattern[] segments;
+
+    PathPattern(final String pattern) {
+        final String normalized = normalize(pattern);
+        this.pattern = normalized;
+
+        final String[] parts = normalized.split("/");
+        this.segments = new Pattern[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            segments[i] = ANY_SEGMENTS.equals(parts[i]) ? null : compileSegment(parts[i]);
+        }
+    }
+
+    @Override
+    public boolean matches(final Path relativePath) {
+        return matches(toSegments(relativePath));
+    }
+
+    boolean matches(final String[] path) {
+        return matches(0, path, 0);
+    }
+
+    /**
+     * Returns whether a path below the given directory could match, allowing directories that can't hold any
+     * included file to be skipped entirely.
+     */
+    boolean couldMatchBelow(final String[] directory) {
+        return couldMatchBelow(0, directory, 0);
+    }
+
+    /**
+     * Returns whether every path below the given directory matches, allowing excluded directories to be skipped
+     * entirely.
+     */
+    boolean matchesEverythingBelow(final String[] directory) {
+        return segments[segments.length - 1] == null && matches(directory);
+    }
+
+    private boolean matches(final int patternIndex, final String[] path, final int pathIndex) {
+        if (patternIndex == segments.length) {
+            return pathIndex == path.length;
+        }
+
+        if (segments[patternIndex] == null) {
+            for (int i = pathIndex; i <= path.length; i++) {
+                if (matches(patternIndex + 1, path, i)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return pathIndex < path.length
+                && segments[patternIndex].matcher(path[pathIndex]).matches()
+                && matches(patternIndex + 1, path, pathIndex + 1);
+    }
+
+    private boolean couldMatchBelow(final int patternIndex, final String[] directory, final int directoryIndex) {
+        if (patternIndex == segments.length) {
+            return false;
+        }
+
+        if (segments[patternIndex] == null || directoryIndex == directory.length) {
+            return true;
+        }
+
+        return segments[patternIndex].matcher(directory[directoryIndex]).matches()
+                && couldMatchBelow(patternIndex + 1, directory, directoryIndex + 1);
+    }
+
+    static String[] toSegments(final Path relativePath) {
+        final String[] segments = new String[relativePath.getNameCount()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = relativePath.getName(i).toString();
+        }
+        return segments;
+    }
+
+    private static String normalize(final String pattern) {
+        String normalized = pattern.replace('\\', '/');
+        while (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        if (normalized.endsWith("/")) {
+            normalized += ANY_SEGMENTS;
+        }
+        return normalized;
+    }
+
+    private static Pattern compileSegment(final String segment) {
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        for (char c : segment.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            }
+            else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
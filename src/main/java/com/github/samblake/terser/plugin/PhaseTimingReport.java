@@ -0,0 +1,105 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.Minification;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Collects the time Terser spent in each phase (parsing, compressing, mangling, generating the output and so on) for
+ * every file, and reports the totals along with the slowest files, so options can be tuned where the time goes.
+ */
+class PhaseTimingReport {
+    static final String TOTAL = "total";
+
+    private static final String FILE_FORMAT = "%-50s";
+    private static final String PHASE_FORMAT = " %10s";
+
+    private final Path targetDirectory;
+    private final int slowestFiles;
+    private final ConcurrentLinkedQueue<Timings> timings = new ConcurrentLinkedQueue<>();
+
+    PhaseTimingReport(final Path targetDirectory, final int slowestFiles) {
+        this.targetDirectory = targetDirectory;
+        this.slowestFiles = slowestFiles;
+    }
+
+    /**
+     * Keeps the phase timings of the minification, if Terser reported any. Safe to call from multiple threads.
+     */
+    void record(final Minification minification) {
+        if (!minification.getTimings().isEmpty()) {
+            timings.add(new Timings(targetDirectory.relativize(minification.getTarget()).toString(),
+                    minification.getTimings()));
+        }
+    }
+
+    /**
+     * Returns a table of the time spent in each phase over all files, followed by the slowest files.
+     */
+    Optional<String> report() {
+        if (timings.isEmpty()) {
+            return Optional.empty();
+        }
+
+        // Terser reports the same phases for every file, in the order they run
+        final Set<String> phases = timings.peek().phases.keySet();
+        final Map<String, Duration> totals = new LinkedHashMap<>();
+        timings.forEach(file ->
+                file.phases.forEach((phase, duration) -> totals.merge(phase, duration, Duration::plus)));
+
+        final List<String> rows = new ArrayList<>();
+        rows.add(row("File", new ArrayList<>(phases)));
+        rows.add(row(format("All %d files", timings.size()), durations(phases, totals)));
+        timings.stream()
+                .sorted(Comparator.comparing((Timings file) -> file.total()).reversed())
+                .limit(slowestFiles)
+                .forEach(file -> rows.add(row(file.file, durations(phases, file.phases))));
+
+        return Optional.of(String.join(lineSeparator(), rows));
+    }
+
+    private static List<String> durations(final Set<String> phases, final Map<String, Duration> durations) {
+        return phases.stream()
+                .map(phase -> durations.getOrDefault(phase, Duration.ZERO))
+                .map(PhaseTimingReport::formatDuration)
+                .collect(toList());
+    }
+
+    private static String row(final String file, final List<String> columns) {
+        return format(FILE_FORMAT, file) + columns.stream()
+                .map(column -> format(PHASE_FORMAT, column))
+                .collect(joining());
+    }
+
+    static String formatDuration(final Duration duration) {
+        return format("%.3f s", duration.toMillis() / 1000.0);
+    }
+
+    private static class Timings {
+        private final String file;
+        private final Map<String, Duration> phases;
+
+        Timings(final String file, final Map<String, Duration> phases) {
+            this.file = file;
+            this.phases = phases;
+        }
+
+        Duration total() {
+            return phases.getOrDefault(TOTAL, Duration.ZERO);
+        }
+    }
+}
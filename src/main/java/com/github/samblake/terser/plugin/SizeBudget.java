@@ -0,0 +1,87 @@
+package com.github.samblake.terser.plugin;
+
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Size limits for the minified files matching a pattern, relative to the target directory. Sizes are given in bytes or
+ * with a {@code B}, {@code KB} or {@code MB} unit (powers of 1024), and a limit that isn't set isn't checked.
+ */
+public class SizeBudget {
+    private static final Pattern SIZE = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*([KM]?B)?");
+
+    private String pattern;
+    private String maxRaw;
+    private String maxMinified;
+    private String maxGzip;
+
+    public SizeBudget() {
+    }
+
+    public SizeBudget(String pattern, String maxRaw, String maxMinified, String maxGzip) {
+        this.pattern = pattern;
+        this.maxRaw = maxRaw;
+        this.maxMinified = maxMinified;
+        this.maxGzip = maxGzip;
+    }
+
+    public String getPattern() {
+        return this.pattern;
+    }
+
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public String getMaxRaw() {
+        return this.maxRaw;
+    }
+
+    public void setMaxRaw(String maxRaw) {
+        this.maxRaw = maxRaw;
+    }
+
+    public String getMaxMinified() {
+        return this.maxMinified;
+    }
+
+    public void setMaxMinified(String maxMinified) {
+        this.maxMinified = maxMinified;
+    }
+
+    public String getMaxGzip() {
+        return this.maxGzip;
+    }
+
+    public void setMaxGzip(String maxGzip) {
+        this.maxGzip = maxGzip;
+    }
+
+    static OptionalLong parseSize(final String size) {
+        if (size == null || size.trim().isEmpty()) {
+            return OptionalLong.empty();
+        }
+
+        final Matcher matcher = SIZE.matcher(size.trim().toUpperCase(Locale.ROOT));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+
+        final double value = Double.parseDouble(matcher.group(1));
+        final String unit = matcher.group(2) == null ? "B" : matcher.group(2);
+        final long multiplier = "MB".equals(unit) ? 1024 * 1024 : "KB".equals(unit) ? 1024 : 1;
+        return OptionalLong.of((long)(value * multiplier));
+    }
+
+    @Override
+    public String toString() {
+        return "SizeBudget{" +
+                "pattern='" + pattern + '\'' +
+                ", maxRaw='" + maxRaw + '\'' +
+                ", maxMinified='" + maxMinified + '\'' +
+                ", maxGzip='" + maxGzip + '\'' +
+                '}';
+    }
+}
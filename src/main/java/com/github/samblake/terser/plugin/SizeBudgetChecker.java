@@ -0,0 +1,180 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.Minification;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Records the sizes of minified files matching a {@link SizeBudget} and reports the files over budget. The sizes are
+ * kept in a history file between runs so the report can show how much each offender has grown since the last build.
+ */
+class SizeBudgetChecker {
+    private static final String SEPARATOR = "\t";
+    private static final String ROW_FORMAT = "%-50s %-9s %11s %11s %11s";
+
+    private enum Measure {
+        RAW, MINIFIED, GZIP
+    }
+
+    private final List<Limits> budgets;
+    private final Path targetDirectory;
+    private final Optional<Path> historyFile;
+    private final Map<String, long[]> sizes = new ConcurrentHashMap<>();
+
+    SizeBudgetChecker(final List<SizeBudget> budgets, final Path targetDirectory, final Optional<Path> historyFile) {
+        this.budgets = budgets.stream().map(Limits::new).collect(toList());
+        this.targetDirectory = targetDirectory;
+        this.historyFile = historyFile;
+    }
+
+    /**
+     * Measures the result if any budget applies to it. Safe to call from multiple threads.
+     */
+    void record(final Minification minification) {
+        if (budgets.isEmpty() || !minification.getResult().isPresent()) {
+            return;
+        }
+
+        final Path relative = targetDirectory.relativize(minification.getTarget());
+        final String[] segments = PathPattern.toSegments(relative);
+        if (budgets.stream().noneMatch(budget -> budget.pattern.matches(segments))) {
+            return;
+        }
+
+        try {
+            final byte[] result = minification.getResult().get().getBytes(minification.getContext().getCharset());
+            sizes.put(String.join("/", segments), new long[] {
+                    Files.size(minification.getSource()), result.length, TargetWriter.gzip(result).length });
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Updates the history and returns a table of the files over budget, if there are any.
+     */
+    Optional<String> check() {
+        if (sizes.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final Map<String, long[]> history = readHistory();
+        final List<String> rows = new ArrayList<>();
+        new TreeMap<>(sizes).forEach((file, measured) -> {
+            final long[] previous = history.get(file);
+            for (Limits budget : budgets) {
+                if (!budget.pattern.matches(file.split("/"))) {
+                    continue;
+                }
+                for (Measure measure : Measure.values()) {
+                    final OptionalLong limit = budget.get(measure);
+                    final long size = measured[measure.ordinal()];
+                    if (limit.isPresent() && size > limit.getAsLong()) {
+                        rows.add(format(ROW_FORMAT, file, measure.name().toLowerCase(), formatSize(size),
+                                formatSize(limit.getAsLong()), formatChange(previous, measure, size)));
+                    }
+                }
+            }
+        });
+
+        history.putAll(sizes);
+        writeHistory(history);
+
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        rows.add(0, format(ROW_FORMAT, "File", "Measure", "Size", "Budget", "Change"));
+        return Optional.of(String.join(lineSeparator(), rows));
+    }
+
+    private Map<String, long[]> readHistory() {
+        final Map<String, long[]> history = new TreeMap<>();
+        if (!historyFile.isPresent() || !Files.isRegularFile(historyFile.get())) {
+            return history;
+        }
+
+        try {
+            for (String line : Files.readAllLines(historyFile.get(), UTF_8)) {
+                final String[] columns = line.split(SEPARATOR);
+                if (columns.length == 4) {
+                    history.put(columns[0], new long[] {
+                            Long.parseLong(columns[1]), Long.parseLong(columns[2]), Long.parseLong(columns[3]) });
+                }
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            // A damaged history only costs the change column, start afresh
+            history.clear();
+        }
+        return history;
+    }
+
+    private void writeHistory(final Map<String, long[]> history) {
+        if (!historyFile.isPresent()) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(historyFile.get().toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(historyFile.get(), UTF_8)) {
+                for (Map.Entry<String, long[]> entry : history.entrySet()) {
+                    final long[] measured = entry.getValue();
+                    writer.write(entry.getKey() + SEPARATOR + measured[0] + SEPARATOR + measured[1]
+                            + SEPARATOR + measured[2]);
+                    writer.newLine();
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String formatChange(final long[] previous, final Measure measure, final long size) {
+        if (previous == null) {
+            return "new";
+        }
+        final long change = size - previous[measure.ordinal()];
+        return (change < 0 ? "-" : "+") + formatSize(Math.abs(change));
+    }
+
+    static String formatSize(final long bytes) {
+        return bytes < 1024 ? bytes + " B" : format("%.1f KB", bytes / 1024.0);
+    }
+
+    private static class Limits {
+        private final PathPattern pattern;
+        private final OptionalLong[] limits;
+
+        Limits(final SizeBudget budget) {
+            if (budget.getPattern() == null) {
+                throw new IllegalArgumentException("No pattern given for " + budget);
+            }
+            this.pattern = new PathPattern(budget.getPattern());
+            this.limits = new OptionalLong[] { SizeBudget.parseSize(budget.getMaxRaw()),
+                    SizeBudget.parseSize(budget.getMaxMinified()), SizeBudget.parseSize(budget.getMaxGzip()) };
+        }
+
+        OptionalLong get(final Measure measure) {
+            return limits[measure.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.samblake.terser.plugin;
+
+import org.codehaus.plexus.util.AbstractScanner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Finds the files below a directory that match the include patterns and none of the exclude patterns (including the
+ * plexus default excludes). Each directory is listed by its own fork/join task, so large trees are scanned in
+ * parallel. Directories that can't contain an included file, or whose whole subtree is excluded, are not entered.
+ */
+class SourceFileScanner {
+    private final Path baseDirectory;
+    private final List<PathPattern> includes;
+    private final List<PathPattern> excludes;
+    private final ForkJoinPool pool;
+
+    SourceFileScanner(final Path baseDirectory, final List<String> includes, final List<String> excludes) {
+        this(baseDirectory, includes, excludes, ForkJoinPool.commonPool());
+    }
+
+    SourceFileScanner(final Path baseDirectory, final List<String> includes, final List<String> excludes,
+            final ForkJoinPool pool) {
+        this.baseDirectory = requireNonNull(baseDirectory);
+        this.includes = includes.stream().map(PathPattern::new).collect(toList());
+        this.excludes = Stream.concat(excludes.stream(), Arrays.stream(AbstractScanner.DEFAULTEXCLUDES))
+                .map(PathPattern::new)
+                .collect(toList());
+        this.pool = requireNonNull(pool);
+    }
+
+    Set<Path> scan() {
+        final Set<Path> files = ConcurrentHashMap.newKeySet();
+        scan(files::add);
+        return files;
+    }
+
+    /**
+     * Passes each included file to the consumer as soon as it is found. The consumer is called concurrently from
+     * several threads.
+     */
+    void scan(final Consumer<Path> consumer) {
+        if (includes.isEmpty() || !Files.isDirectory(baseDirectory)) {
+            return;
+        }
+
+        final Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+        try {
+            final Object key = Files.readAttributes(baseDirectory, BasicFileAttributes.class).fileKey();
+            if (key != null) {
+                visitedDirectories.add(key);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pool.invoke(new DirectoryTask(baseDirectory, new String[0], consumer, visitedDirectories));
+    }
+
+    private boolean isIncluded(final String[] file) {
+        return includes.stream().anyMatch(include -> include.matches(file))
+                && excludes.stream().noneMatch(exclude -> exclude.matches(file));
+    }
+
+    private boolean shouldEnter(final String[] directory) {
+        return includes.stream().anyMatch(include -> include.couldMatchBelow(directory))
+                && excludes.stream().noneMatch(exclude -> exclude.matchesEverythingBelow(directory));
+    }
+
+    private class DirectoryTask extends RecursiveAction {
+        private final Path directory;
+        private final String[] segments;
+        private final Consumer<Path> consumer;
+        private final Set<Object> visitedDirectories;
+
+        DirectoryTask(Path directory, String[] segments, Consumer<Path> consumer, Set<Object> visitedDirectories) {
+            this.directory = directory;
+            this.segments = segments;
+            this.consumer = consumer;
+            this.visitedDirectories = visitedDirectories;
+        }
+
+        @Override
+        protected void compute() {
+            final List<DirectoryTask> subdirectories = new ArrayList<>();
+            try {
+                // A depth of one reports every entry, directories included, to visitFile along with its attributes
+                Files.walkFileTree(directory, EnumSet.of(FileVisitOption.FOLLOW_LINKS), 1,
+                        new SimpleFileVisitor<Path>() {
+                            @Override
+                            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                                final String[] relative = append(segments, file.getFileName().toString());
+                                if (attributes.isDirectory()) {
+                                    if (shouldEnter(relative) && isFirstVisit(attributes)) {
+                                        subdirectories.add(
+                                                new DirectoryTask(file, relative, consumer, visitedDirectories));
+                                    }
+                                }
+                                else if (attributes.isRegularFile() && isIncluded(relative)) {
+                                    consumer.accept(file);
+                                }
+                                return CONTINUE;
+                            }
+
+                            @Override
+                            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                                // Unreadable entries are skipped, as the plexus scanner does
+                                return CONTINUE;
+                            }
+                        });
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subdirectories);
+        }
+
+        /**
+         * Guards against symbolic link cycles where the file system provides a file key.
+         */
+        private boolean isFirstVisit(final BasicFileAttributes attributes) {
+            final Object key = attributes.fileKey();
+            return key == null || visitedDirectories.add(key);
+        }
+    }
+
+    private static String[] append(final String[] segments, final String segment) {
+        final String[] result = Arrays.copyOf(segments, segments.length + 1);
+        result[segments.length] = segment;
+        return result;
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.Minification;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Streams minification results straight into a ZIP/JAR archive instead of individual files. Entries are written by a
+ * single thread in the order of their target paths as soon as the next one in line is available, so the archive is
+ * identical between builds of the same input regardless of the order in which workers finish. Entry names are the
+ * target paths relative to the target directory. The archive is assembled in a temporary file and moved into place
+ * on {@link #close()}.
+ */
+class TargetArchiveWriter implements TargetWriter {
+    // A fixed entry time keeps the archive reproducible (1980-02-01 UTC, just after the earliest ZIP time)
+    private static final long ENTRY_TIME = 315532800000L + 31L * 24 * 60 * 60 * 1000;
+
+    private final Path archive;
+    private final Path temp;
+    private final Path targetDirectory;
+    private final boolean gzip;
+    private final Map<List<Object>, CompletableFuture<List<Entry>>> entries = new LinkedHashMap<>();
+    private final AtomicInteger writtenFiles = new AtomicInteger();
+    private final ExecutorService executor;
+    private final Future<?> writing;
+
+    TargetArchiveWriter(final Path archive, final Path targetDirectory, final Collection<Minification> minifications,
+            final boolean gzip) {
+
+        this.archive = requireNonNull(archive);
+        this.temp = archive.resolveSibling("." + archive.getFileName() + ".tmp");
+        this.targetDirectory = requireNonNull(targetDirectory);
+        this.gzip = gzip;
+
+        // Keyed by source and variant, so results can still be matched once their target has been renamed
+        minifications.stream()
+                .flatMap(minification -> Stream.concat(Stream.of(minification), minification.getVariants().stream()))
+                .sorted(comparing(Minification::getTarget))
+                .forEach(minification -> entries.put(key(minification), new CompletableFuture<>()));
+
+        this.executor = Executors.newSingleThreadExecutor(task -> {
+            final Thread thread = new Thread(task, "terser-archive-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writing = executor.submit(this::writeArchive);
+    }
+
+    @Override
+    public void write(final Minification minification) {
+        final CompletableFuture<List<Entry>> future = entries.get(key(minification));
+        if (future == null) {
+            throw new IllegalArgumentException("Unexpected minification " + minification.getSource());
+        }
+
+        final Log log = minification.getContext().getLog();
+        final Charset charset = minification.getContext().getCharset();
+        final String name = toEntryName(minification.getTarget());
+        log.debug(format("adding %s to %s", name, archive));
+
+        final List<Entry> minificationEntries = new ArrayList<>();
+        addEntries(minificationEntries, name, minification.getResult()
+                .orElseThrow(() -> new IllegalStateException(
+                        "No result for minification. Cannot write minification (" + minification + ")"))
+                .getBytes(charset));
+        minification.getSourceMap().ifPresent(map ->
+                addEntries(minificationEntries, name + MAP_EXTENSION, map.getBytes(charset)));
+
+        future.complete(minificationEntries);
+    }
+
+    private static List<Object> key(final Minification minification) {
+        return Arrays.asList(minification.getSource(), minification.getVariant());
+    }
+
+    private void addEntries(final List<Entry> target, final String name, final byte[] bytes) {
+        target.add(new Entry(name, bytes));
+        if (gzip) {
+            target.add(new Entry(name + GZIP_EXTENSION, TargetWriter.gzip(bytes)));
+        }
+    }
+
+    private Void writeArchive() throws IOException {
+        Files.createDirectories(temp.toAbsolutePath().getParent());
+        try (OutputStream out = Files.newOutputStream(temp);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (CompletableFuture<List<Entry>> future : entries.values()) {
+                for (Entry entry : future.join()) {
+                    final ZipEntry zipEntry = new ZipEntry(entry.name);
+                    // ZIP stores local time, so compensate for the time zone to get the same bytes everywhere
+                    zipEntry.setTime(ENTRY_TIME - TimeZone.getDefault().getOffset(ENTRY_TIME));
+                    zip.putNextEntry(zipEntry);
+                    zip.write(entry.bytes);
+                    zip.closeEntry();
+                    writtenFiles.incrementAndGet();
+                }
+            }
+        }
+
+        try {
+            Files.move(temp, archive, ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, archive, REPLACE_EXISTING);
+        }
+        return null;
+    }
+
+    private String toEntryName(final Path target) {
+        return targetDirectory.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public int getWrittenFiles() {
+        return writtenFiles.get();
+    }
+
+    @Override
+    public int getUnchangedFiles() {
+        return 0;
+    }
+
+    /**
+     * Waits for the archive to be completed. If any minification never arrived (because the execution failed) the
+     * archive is abandoned and the previous one, if any, is left in place.
+     */
+    @Override
+    public void close() {
+        entries.values().forEach(entry -> entry.cancel(false));
+        final List<Path> missing = entries.entrySet().stream()
+                .filter(entry -> entry.getValue().isCancelled())
+                .map(entry -> (Path)entry.getKey().get(0))
+                .distinct()
+                .sorted(comparing(Path::toString))
+                .collect(toList());
+
+        try {
+            writing.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing " + archive, e);
+        }
+        catch (Exception e) {
+            deleteQuietly();
+            final Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof CancellationException) {
+                throw new IllegalStateException("Missing results for " + missing + ", " + archive + " not written");
+            }
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException)cause);
+            }
+            throw new IllegalStateException("Failed to write " + archive, cause);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    private void deleteQuietly() {
+        try {
+            Files.deleteIfExists(temp);
+        }
+        catch (IOException e) {
+            // Nothing more can be done, the original failure is reported instead
+        }
+    }
+
+    private static class Entry {
+        private final String name;
+        private final byte[] bytes;
+
+        Entry(String name, byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+    }
+}
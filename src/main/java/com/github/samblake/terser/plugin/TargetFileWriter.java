@@ -1,54 +1,375 @@
 package com.github.samblake.terser.plugin;
 
+import com.github.samblake.terser.plugin.minifier.FlightRecorderEvents;
 import com.github.samblake.terser.plugin.minifier.Minification;
 import org.apache.maven.plugin.logging.Log;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 
 import static java.lang.String.format;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
 
-class TargetFileWriter {
+/**
+ * Writes minification results to disk. Each file is written asynchronously to a temporary sibling file, forced to the
+ * storage device and then moved into place, so a target is either the previous version or the complete new one, never
+ * a truncated write. Temporary files left behind by a build that was killed are deleted the first time a directory is
+ * written to.
+ * Targets whose existing content already matches are left untouched, so their modification time does not change.
+ * The number of writes in flight is bounded; {@link #close()} waits for all of them to finish. Optionally a gzipped
+ * variant is written next to each file.
+ */
+class TargetFileWriter implements TargetWriter {
+    static final int DEFAULT_MAX_PENDING_WRITES = 64;
+    private static final int COMPARE_BUFFER_SIZE = 8192;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern TEMP_FILE = Pattern.compile("\\..+\\.[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}\\.tmp");
 
-    static void writeTargetFile(final Minification minification) {
-        writeTargetFile(minification, Minification::getResult, Minification::getTarget);
+    private final Map<Path, Boolean> directories = new ConcurrentHashMap<>();
+    private final Set<CompletableFuture<Void>> pending = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final BuildContext buildContext;
+    private final boolean gzip;
+    private final AtomicInteger writtenFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private final long started = System.currentTimeMillis();
+
+    TargetFileWriter() {
+        this(new DefaultBuildContext());
+    }
+
+    TargetFileWriter(final BuildContext buildContext) {
+        this(DEFAULT_MAX_PENDING_WRITES, buildContext);
     }
 
-    static void writeMapFile(final Minification minification) {
-        writeTargetFile(minification, Minification::getSourceMap, m -> {
+    TargetFileWriter(final int maxPendingWrites) {
+        this(maxPendingWrites, new DefaultBuildContext());
+    }
+
+    /**
+     * Written files are reported to the build context through {@link BuildContext#refresh(File)} rather than written
+     * through its output streams, because they are moved into place from temporary files.
+     */
+    TargetFileWriter(final int maxPendingWrites, final BuildContext buildContext) {
+        this(maxPendingWrites, buildContext, false);
+    }
+
+    TargetFileWriter(final int maxPendingWrites, final BuildContext buildContext, final boolean gzip) {
+        this.permits = new Semaphore(Math.max(1, maxPendingWrites));
+        this.buildContext = requireNonNull(buildContext);
+        this.gzip = gzip;
+    }
+
+    @Override
+    public void write(final Minification minification) {
+        writeTargetFile(minification);
+        if (minification.getSourceMap().isPresent()) {
+            writeMapFile(minification);
+        }
+    }
+
+    CompletableFuture<Void> writeTargetFile(final Minification minification) {
+        return writeTargetFile(minification, Minification::getResult, Minification::getTarget);
+    }
+
+    CompletableFuture<Void> writeMapFile(final Minification minification) {
+        return writeTargetFile(minification, Minification::getSourceMap, m -> {
             String fileName = m.getTarget().getFileName().toString();
             Path parent = m.getTarget().getParent();
-            return parent.resolve(fileName + ".map");
+            return parent.resolve(fileName + MAP_EXTENSION);
         });
     }
 
-    private static void writeTargetFile(final Minification minification,
+    private CompletableFuture<Void> writeTargetFile(final Minification minification,
             Function<Minification, Optional<String>> contentLoader,
             Function<Minification, Path> targetLoader) {
 
         final Log log = minification.getContext().getLog();
         final Charset charset = minification.getContext().getCharset();
 
+        final Path target = targetLoader.apply(minification);
+        final byte[] bytes = contentLoader.apply(minification)
+                .orElseThrow(() -> new IllegalStateException(
+                        "No result for minification. Cannot write minification (" + minification + ")"))
+                .getBytes(charset);
+
+        if (gzip) {
+            final Path gzipTarget = target.resolveSibling(target.getFileName() + GZIP_EXTENSION);
+            return CompletableFuture.allOf(
+                    writeBytes(log, target, bytes),
+                    writeBytes(log, gzipTarget, TargetWriter.gzip(bytes)));
+        }
+
+        return writeBytes(log, target, bytes);
+    }
+
+    private CompletableFuture<Void> writeBytes(final Log log, final Path target, final byte[] bytes) {
+        final WriteRecording recording = new WriteRecording();
+
+        if (isUnchanged(target, bytes)) {
+            log.debug(format("%s is unchanged, skipping write", target));
+            unchangedFiles.incrementAndGet();
+            recording.commit(target, bytes, true);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        log.debug(format("writing to %s", target));
+        return track(write(target, bytes).thenRun(() -> {
+            writtenFiles.incrementAndGet();
+            buildContext.refresh(target.toFile());
+            recording.commit(target, bytes, false);
+        }));
+    }
+
+    @Override
+    public int getWrittenFiles() {
+        return writtenFiles.get();
+    }
+
+    @Override
+    public int getUnchangedFiles() {
+        return unchangedFiles.get();
+    }
+
+    /**
+     * Compares the size of the existing target first and only then streams its content.
+     */
+    private static boolean isUnchanged(final Path target, final byte[] bytes) {
+        try {
+            if (!Files.isRegularFile(target) || Files.size(target) != bytes.length) {
+                return false;
+            }
+
+            try (InputStream in = Files.newInputStream(target)) {
+                final byte[] buffer = new byte[COMPARE_BUFFER_SIZE];
+                int offset = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    if (offset + read > bytes.length) {
+                        return false;
+                    }
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] != bytes[offset + i]) {
+                            return false;
+                        }
+                    }
+                    offset += read;
+                }
+                return offset == bytes.length;
+            }
+        }
+        catch (IOException e) {
+            // Fall back to writing the file
+            return false;
+        }
+    }
+
+    private CompletableFuture<Void> write(final Path target, final byte[] bytes) {
+        acquirePermit();
+
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        result.whenComplete((v, e) -> permits.release());
+
+        final Path temp = target.resolveSibling("." + target.getFileName() + "." + UUID.randomUUID() + TEMP_SUFFIX);
+        try {
+            createDirectories(target.getParent());
+
+            final AsynchronousFileChannel channel = AsynchronousFileChannel.open(temp, CREATE_NEW, WRITE);
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            channel.write(buffer, 0, buffer, new WriteHandler(channel, temp, target, result));
+        }
+        catch (IOException | UncheckedIOException e) {
+            deleteQuietly(temp);
+            result.completeExceptionally(e);
+        }
+
+        return result;
+    }
+
+    private CompletableFuture<Void> track(final CompletableFuture<Void> future) {
+        pending.add(future);
+        future.whenComplete((v, e) -> {
+            if (e == null) {
+                pending.remove(future);
+            }
+        });
+        return future;
+    }
+
+    private void acquirePermit() {
         try {
-            Path target = targetLoader.apply(minification);
+            permits.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to write", e);
+        }
+    }
 
-            log.debug(format("writing to %s", target));
-            Files.createDirectories(target.getParent());
+    private void createDirectories(final Path directory) {
+        directories.computeIfAbsent(directory, d -> {
+            try {
+                Files.createDirectories(d);
+                deleteStaleTempFiles(d);
+                return Boolean.TRUE;
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
 
-            final byte[] bytes = contentLoader.apply(minification)
-                    .orElseThrow(() -> new IllegalStateException(
-                            "No result for minification. Cannot write minification (" + minification + ")"))
-                    .getBytes(charset);
+    /**
+     * Deletes the temporary files of writes that never finished, those older than this writer. Newer ones may belong
+     * to a writer still in progress.
+     */
+    private void deleteStaleTempFiles(final Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                file -> TEMP_FILE.matcher(file.getFileName().toString()).matches())) {
 
-            Files.write(target, bytes);
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < started) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+    }
+
+    private static void moveIntoPlace(final Path temp, final Path target) throws IOException {
+        try {
+            Files.move(temp, target, ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(final Path path) {
+        try {
+            Files.deleteIfExists(path);
         }
         catch (IOException e) {
-            throw new UncheckedIOException(e);
+            // Nothing more can be done, the original failure is reported instead
+        }
+    }
+
+    /**
+     * Waits for all pending writes to complete, rethrowing the first failure.
+     */
+    @Override
+    public void close() {
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        }
+        catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException)e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Records a {@link TargetWriteEvent} for a write when flight recorder events are available. The completion of an
+     * asynchronous write captures the recording rather than the event, as a lambda capturing the event would load its
+     * class even when there is none.
+     */
+    private static class WriteRecording {
+        private final TargetWriteEvent event;
+
+        WriteRecording() {
+            this.event = FlightRecorderEvents.isAvailable() ? new TargetWriteEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+        }
+
+        void commit(final Path target, final byte[] bytes, final boolean unchanged) {
+            if (event == null) {
+                return;
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.file = target.toString();
+                event.bytes = bytes.length;
+                event.unchanged = unchanged;
+                event.commit();
+            }
+        }
+    }
+
+    private static class WriteHandler implements CompletionHandler<Integer, ByteBuffer> {
+        private final AsynchronousFileChannel channel;
+        private final Path temp;
+        private final Path target;
+        private final CompletableFuture<Void> result;
+
+        WriteHandler(AsynchronousFileChannel channel, Path temp, Path target, CompletableFuture<Void> result) {
+            this.channel = channel;
+            this.temp = temp;
+            this.target = target;
+            this.result = result;
+        }
+
+        @Override
+        public void completed(final Integer written, final ByteBuffer buffer) {
+            if (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position(), buffer, this);
+                return;
+            }
+
+            try {
+                channel.force(true);
+                channel.close();
+                moveIntoPlace(temp, target);
+                result.complete(null);
+            }
+            catch (IOException e) {
+                failed(e, buffer);
+            }
+        }
+
+        @Override
+        public void failed(final Throwable e, final ByteBuffer buffer) {
+            try {
+                channel.close();
+            }
+            catch (IOException closeException) {
+                e.addSuppressed(closeException);
+            }
+            deleteQuietly(temp);
+            result.completeExceptionally(e);
         }
     }
 
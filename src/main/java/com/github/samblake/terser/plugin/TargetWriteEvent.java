@@ -0,0 +1,29 @@
+package com.github.samblake.terser.plugin;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering the write of a single file by a {@link TargetFileWriter}, from the comparison with
+ * the existing file to the move into place.
+ */
+@Name("com.github.samblake.terser.TargetWrite")
+@Label("Target Write")
+@Category({ "Terser" })
+@Description("Write of a minified file or source map")
+class TargetWriteEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Unchanged")
+    @Description("Whether the existing file already had the content and the write was skipped")
+    boolean unchanged;
+}
@@ -0,0 +1,39 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.Minification;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Destination for minification results. {@link #close()} completes any outstanding output.
+ */
+interface TargetWriter extends AutoCloseable {
+    String MAP_EXTENSION = ".map";
+    String GZIP_EXTENSION = ".gz";
+
+    void write(Minification minification);
+
+    int getWrittenFiles();
+
+    int getUnchangedFiles();
+
+    @Override
+    void close();
+
+    /**
+     * Compresses with a zero modification time in the header, so identical input always gives identical output.
+     */
+    static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
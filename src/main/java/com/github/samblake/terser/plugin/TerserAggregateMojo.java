@@ -0,0 +1,271 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.FailurePolicy;
+import com.github.samblake.terser.plugin.minifier.ImmutableRecyclingPolicy;
+import com.github.samblake.terser.plugin.minifier.LightweightMinificationStrategy;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import com.github.samblake.terser.plugin.minifier.ParallelTerserMinificationStrategy;
+import com.github.samblake.terser.plugin.minifier.RecyclingPolicy;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
+
+/**
+ * Minifies the files of every module in the reactor in one go. The {@code terser} executions configured in each
+ * module are collected and all of their files are scheduled on a single pool of workers, so the engine start up
+ * cost is paid once per build rather than once per module. Each execution is configured as Maven would configure it,
+ * and its files are written with its own output settings, while the worker pool is configured on this goal.
+ */
+@Mojo(name = "terser-aggregate", aggregator = true, threadSafe = true)
+public class TerserAggregateMojo extends AbstractMojo {
+    static final String PLUGIN_KEY = "com.github.samblake.terser:terser-maven-plugin";
+
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects = new ArrayList<>();
+
+    @Component
+    private BuildContext buildContext = new DefaultBuildContext();
+
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    private MavenSession session;
+
+    @Parameter(defaultValue = "${plugin}", readonly = true, required = true)
+    private PluginDescriptor plugin;
+
+    @Parameter(property = "terser.aggregate.skip", defaultValue = "false")
+    private boolean skip = false;
+
+    @Parameter(property = "threads")
+    private int threads = getRuntime().availableProcessors();
+
+    @Parameter(property = "terser.failurePolicy", defaultValue = "FAIL_FAST")
+    private FailurePolicy failurePolicy = FailurePolicy.FAIL_FAST;
+
+    @Parameter(property = "terser.recycleAfterFiles", defaultValue = "0")
+    private int recycleAfterFiles = 0;
+
+    @Parameter(property = "terser.recycleAfterBytes", defaultValue = "0")
+    private long recycleAfterBytes = 0;
+
+    @Parameter(property = "terser.recycleAfterHeapGrowth", defaultValue = "0")
+    private long recycleAfterHeapGrowth = 0;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Terser minification is skipped.");
+            return;
+        }
+
+        final MojoDescriptor mojoDescriptor = plugin.getMojo(ModuleConfigurationReader.GOAL);
+        final ModuleWriter writer = new ModuleWriter();
+        final Set<Minification> minifications = new HashSet<>();
+        for (MavenProject project : reactorProjects) {
+            for (TerserMojo mojo : new ModuleConfigurationReader(project, session, mojoDescriptor, getLog())
+                    .getTerserMojos()) {
+
+                mojo.setLog(getLog());
+                mojo.setBuildContext(buildContext);
+                final Set<Minification> found = mojo.findMinifications();
+                if (!found.isEmpty()) {
+                    writer.add(mojo, found);
+                    minifications.addAll(found);
+                }
+            }
+        }
+
+        if (minifications.isEmpty()) {
+            getLog().info("No files found to minify.");
+            return;
+        }
+
+        getLog().info(format("Found %d files to minify across %d modules.", minifications.size(),
+                reactorProjects.size()));
+
+        final RecyclingPolicy recyclingPolicy = ImmutableRecyclingPolicy.builder()
+                .maxFiles(recycleAfterFiles)
+                .maxInputBytes(recycleAfterBytes)
+                .maxHeapGrowth(recycleAfterHeapGrowth)
+                .build();
+        TerserMojo.minify(getLog(), new LightweightMinificationStrategy(
+                new ParallelTerserMinificationStrategy(getLog(), threads, recyclingPolicy, failurePolicy),
+                failurePolicy),
+                minifications, writer, writer::record);
+        writer.report();
+
+        getLog().info("Terser minification execution successful.");
+    }
+
+    public List<MavenProject> getReactorProjects() {
+        return this.reactorProjects;
+    }
+
+    public void setReactorProjects(List<MavenProject> reactorProjects) {
+        this.reactorProjects = reactorProjects;
+    }
+
+    public MavenSession getSession() {
+        return this.session;
+    }
+
+    public void setSession(MavenSession session) {
+        this.session = session;
+    }
+
+    public PluginDescriptor getPlugin() {
+        return this.plugin;
+    }
+
+    public void setPlugin(PluginDescriptor plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isSkip() {
+        return this.skip;
+    }
+
+    public void setSkip(boolean skip) {
+        this.skip = skip;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public FailurePolicy getFailurePolicy() {
+        return this.failurePolicy;
+    }
+
+    public void setFailurePolicy(FailurePolicy failurePolicy) {
+        this.failurePolicy = failurePolicy;
+    }
+
+    public int getRecycleAfterFiles() {
+        return this.recycleAfterFiles;
+    }
+
+    public void setRecycleAfterFiles(int recycleAfterFiles) {
+        this.recycleAfterFiles = recycleAfterFiles;
+    }
+
+    public long getRecycleAfterBytes() {
+        return this.recycleAfterBytes;
+    }
+
+    public void setRecycleAfterBytes(long recycleAfterBytes) {
+        this.recycleAfterBytes = recycleAfterBytes;
+    }
+
+    public long getRecycleAfterHeapGrowth() {
+        return this.recycleAfterHeapGrowth;
+    }
+
+    public void setRecycleAfterHeapGrowth(long recycleAfterHeapGrowth) {
+        this.recycleAfterHeapGrowth = recycleAfterHeapGrowth;
+    }
+
+    /**
+     * Writes each file with the writer of the execution it was found by, so the output settings of every execution
+     * apply, and records it for the size budgets and timings of that execution.
+     */
+    private static class ModuleWriter implements TargetWriter {
+        private final List<Module> modules = new ArrayList<>();
+        private final Map<Path, Module> targets = new HashMap<>();
+
+        void add(final TerserMojo mojo, final Set<Minification> minifications) throws MojoFailureException {
+            final Module module = new Module(mojo, mojo.createWriter(minifications));
+            modules.add(module);
+            minifications.stream()
+                    .flatMap(minification -> Stream.concat(Stream.of(minification),
+                            minification.getVariants().stream()))
+                    .forEach(minification -> targets.put(minification.getTarget(), module));
+        }
+
+        void record(final Minification minification) {
+            final Module module = targets.get(minification.getTarget());
+            module.budgetChecker.record(minification);
+            module.timingReport.record(minification);
+        }
+
+        @Override
+        public void write(final Minification minification) {
+            targets.get(minification.getTarget()).writer.write(minification);
+        }
+
+        @Override
+        public int getWrittenFiles() {
+            return modules.stream().mapToInt(module -> module.writer.getWrittenFiles()).sum();
+        }
+
+        @Override
+        public int getUnchangedFiles() {
+            return modules.stream().mapToInt(module -> module.writer.getUnchangedFiles()).sum();
+        }
+
+        @Override
+        public void close() {
+            RuntimeException failure = null;
+            for (Module module : modules) {
+                try {
+                    module.writer.close();
+                }
+                catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        void report() throws MojoFailureException {
+            for (Module module : modules) {
+                module.mojo.report(module.budgetChecker, module.timingReport);
+            }
+        }
+    }
+
+    private static class Module {
+        private final TerserMojo mojo;
+        private final TargetWriter writer;
+        private final SizeBudgetChecker budgetChecker;
+        private final PhaseTimingReport timingReport;
+
+        Module(final TerserMojo mojo, final TargetWriter writer) throws MojoFailureException {
+            this.mojo = mojo;
+            this.writer = writer;
+            this.budgetChecker = mojo.createBudgetChecker();
+            this.timingReport = mojo.createTimingReport();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import com.github.samblake.terser.plugin.minifier.MinificationContext;
+import com.github.samblake.terser.plugin.minifier.TerserEngine;
+import com.github.samblake.terser.plugin.minifier.TerserMinifier;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Benchmarks candidate Terser options against a sample of the configured files, reporting the minification time and
+ * the minified and gzipped sizes of each. Only the candidates that no other candidate beats on both time and gzipped
+ * size are listed, so the remaining choice is a trade between the two. Nothing is written to the target directory.
+ * <p>
+ * All candidates are measured on a single engine that is loaded before the first one, and only the minification of
+ * the files, already read into memory, is timed, so the times tell the candidates apart rather than the engine start
+ * up.
+ */
+@Mojo(name = "terser-explore", threadSafe = true)
+public class TerserExploreMojo extends TerserMojo {
+    private static final String ROW_FORMAT = "%10s %12s %12s  %s";
+
+    @Parameter(property = "candidates")
+    private List<String> candidates = new ArrayList<>();
+
+    @Parameter(property = "terser.sampleSize", defaultValue = "20")
+    private int sampleSize = 20;
+
+    @Parameter(property = "terser.repetitions", defaultValue = "3")
+    private int repetitions = 3;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (candidates.isEmpty()) {
+            throw new MojoFailureException("No candidate options given to explore.");
+        }
+
+        // Files stripped by the lightweight minifier don't use the Terser options
+        final Set<Minification> sample = sample(findMinifications().stream()
+                .filter(minification -> !minification.getContext().isLightweight())
+                .collect(toSet()), sampleSize);
+        if (sample.isEmpty()) {
+            return;
+        }
+
+        if (!TerserEngine.isOptimizingRuntime()) {
+            getLog().warn("Optimizing runtime compilation is not available, the measured times are those of the "
+                    + "Truffle interpreter.");
+        }
+
+        getLog().info(format("Exploring %d candidate options on %d files, %d runs each.", candidates.size(),
+                sample.size(), repetitions));
+
+        final List<Minification> loaded;
+        try {
+            loaded = load(sample);
+        }
+        catch (UncheckedIOException e) {
+            throw new MojoExecutionException("Failed to read the sample: " + e.getCause().getMessage(), e);
+        }
+
+        final List<Measurement> measurements = new ArrayList<>();
+        try (TerserMinifier minifier = new TerserMinifier().prepare(loaded.get(0).getContext())) {
+            for (String candidate : candidates) {
+                try {
+                    measurements.add(measure(minifier, loaded, candidate));
+                }
+                catch (RuntimeException e) {
+                    getLog().warn(format("Candidate %s failed: %s", candidate, e.getMessage()));
+                }
+            }
+        }
+
+        final List<Measurement> front = paretoFront(measurements);
+        final List<String> rows = new ArrayList<>();
+        rows.add(format(ROW_FORMAT, "Time", "Size", "Gzip size", "Options"));
+        front.forEach(measurement -> rows.add(format(ROW_FORMAT, measurement.millis + " ms",
+                SizeBudgetChecker.formatSize(measurement.size), SizeBudgetChecker.formatSize(measurement.gzipSize),
+                measurement.options)));
+
+        getLog().info("Non-dominated options, by gzipped size:" + lineSeparator() + String.join(lineSeparator(), rows));
+        getLog().info(format("%d of %d candidates were dominated.", measurements.size() - front.size(),
+                candidates.size()));
+    }
+
+    /**
+     * Picks evenly spaced files from the sorted sources so the same sample is used every time.
+     */
+    static Set<Minification> sample(final Set<Minification> minifications, final int size) {
+        if (size < 1 || minifications.size() <= size) {
+            return minifications;
+        }
+
+        final List<Minification> sorted = minifications.stream()
+                .sorted(comparing(Minification::getSource))
+                .collect(toList());
+
+        final Set<Minification> sample = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            sample.add(sorted.get((int)((long)i * sorted.size() / size)));
+        }
+        return sample;
+    }
+
+    /**
+     * Reads the sample into memory, sorted so every candidate minifies the files in the same order.
+     */
+    private static List<Minification> load(final Set<Minification> sample) {
+        return sample.stream()
+                .sorted(comparing(Minification::getSource))
+                .map(minification -> {
+                    try {
+                        return ImmutableMinification.copyOf(minification)
+                                .withCode(TerserMinifier.read(minification))
+                                .withVariants();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .collect(toList());
+    }
+
+    /**
+     * Minifies the sample with the candidate options on the already loaded minifier, keeping the median of the summed
+     * minification times of the runs. An extra first run warms up the compilation of the candidate's code paths and
+     * isn't counted.
+     */
+    private Measurement measure(final TerserMinifier minifier, final List<Minification> sample, final String options) {
+        final Map<MinificationContext, MinificationContext> contexts = new HashMap<>();
+        final List<Minification> candidateSample = sample.stream()
+                .map(minification -> ImmutableMinification.copyOf(minification).withContext(contexts.computeIfAbsent(
+                        minification.getContext(), context -> ImmutableMinificationContext.copyOf(context)
+                                .withOptions(options))))
+                .collect(toList());
+
+        final long[] times = new long[Math.max(repetitions, 1)];
+        long size = 0;
+        long gzipSize = 0;
+        for (int i = -1; i < times.length; i++) {
+            long nanos = 0;
+            size = 0;
+            gzipSize = 0;
+            for (Minification minification : candidateSample) {
+                final long start = System.nanoTime();
+                final Minification result = minifier.execute(minification);
+                nanos += System.nanoTime() - start;
+
+                final byte[] bytes = result.getResult().orElse("").getBytes(result.getContext().getCharset());
+                size += bytes.length;
+                gzipSize += TargetWriter.gzip(bytes).length;
+            }
+
+            if (i >= 0) {
+                times[i] = nanos / 1_000_000;
+            }
+        }
+
+        Arrays.sort(times);
+        return new Measurement(options, times[times.length / 2], size, gzipSize);
+    }
+
+    /**
+     * Returns the measurements not beaten by any other on both time and gzipped size, smallest first.
+     */
+    static List<Measurement> paretoFront(final List<Measurement> measurements) {
+        return measurements.stream()
+                .filter(measurement -> measurements.stream().noneMatch(other -> other.dominates(measurement)))
+                .sorted(Comparator.<Measurement>comparingLong(measurement -> measurement.gzipSize)
+                        .thenComparingLong(measurement -> measurement.millis))
+                .collect(toList());
+    }
+
+    public List<String> getCandidates() {
+        return this.candidates;
+    }
+
+    public void setCandidates(List<String> candidates) {
+        this.candidates = candidates;
+    }
+
+    public int getSampleSize() {
+        return this.sampleSize;
+    }
+
+    public void setSampleSize(int sampleSize) {
+        this.sampleSize = sampleSize;
+    }
+
+    public int getRepetitions() {
+        return this.repetitions;
+    }
+
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    static class Measurement {
+        final String options;
+        final long millis;
+        final long size;
+        final long gzipSize;
+
+        Measurement(final String options, final long millis, final long size, final long gzipSize) {
+            this.options = options;
+            this.millis = millis;
+            this.size = size;
+            this.gzipSize = gzipSize;
+        }
+
+        boolean dominates(final Measurement other) {
+            return millis <= other.millis && gzipSize <= other.gzipSize
+                    && (millis < other.millis || gzipSize < other.gzipSize);
+        }
+    }
+}
@@ -1,32 +1,64 @@
 package com.github.samblake.terser.plugin;
 
+import com.github.samblake.terser.plugin.minifier.FailurePolicy;
+import com.github.samblake.terser.plugin.minifier.ImmutableRecyclingPolicy;
+import com.github.samblake.terser.plugin.minifier.LightweightMinificationStrategy;
 import com.github.samblake.terser.plugin.minifier.Minification;
+import com.github.samblake.terser.plugin.minifier.MinificationException;
+import com.github.samblake.terser.plugin.minifier.MinificationListener;
+import com.github.samblake.terser.plugin.minifier.MinificationSession;
 import com.github.samblake.terser.plugin.minifier.ParallelTerserMinificationStrategy;
+import com.github.samblake.terser.plugin.minifier.RecyclingPolicy;
+import com.github.samblake.terser.plugin.minifier.TerserEngine;
+import com.github.samblake.terser.plugin.minifier.TerserMinificationStrategy;
+import com.github.samblake.terser.plugin.minifier.TerserMode;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.sonatype.plexus.build.incremental.BuildContext;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
 
 import java.io.File;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
 import static java.nio.charset.Charset.defaultCharset;
+import static java.util.stream.Collectors.toList;
 
 @Mojo(name = "terser", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, threadSafe = true)
 public class TerserMojo extends AbstractMojo {
+    static final String DEFAULT_MANIFEST = "manifest.json";
+    private static final int SLOWEST_FILES = 10;
+    private static final int PENDING_FILES_PER_THREAD = 4;
+
+    @Component
+    private BuildContext buildContext = new DefaultBuildContext();
+
+    @Parameter(property = "terser.skip", defaultValue = "false")
+    private boolean skip = false;
+
     @Parameter(property = "verbose", defaultValue = "false")
     private boolean verbose = false;
 
     @Parameter(property = "threads", defaultValue = "1")
     private int threads = 1;
 
-    @Parameter(property = "terserSrc", required = true)
+    @Parameter(property = "terserSrc")
     private File terserSrc;
 
     @Parameter(property = "sourceMapSrc", required = false)
@@ -38,6 +70,21 @@ public class TerserMojo extends AbstractMojo {
     @Parameter(property = "targetDir", required = true)
     private File targetDir;
 
+    @Parameter(property = "targetArchive")
+    private File targetArchive;
+
+    @Parameter(property = "gzip", defaultValue = "false")
+    private boolean gzip = false;
+
+    @Parameter(property = "terser.contentHash", defaultValue = "false")
+    private boolean contentHash = false;
+
+    @Parameter(property = "terser.hashLength", defaultValue = "8")
+    private int hashLength = 8;
+
+    @Parameter(property = "terser.manifest")
+    private File manifest;
+
     @Parameter(property = "jsSourceFiles", alias = "jsFiles")
     private List<String> jsSourceFiles = new ArrayList<>();
 
@@ -47,17 +94,131 @@ public class TerserMojo extends AbstractMojo {
     @Parameter(property = "jsSourceExcludes", alias = "jsExcludes")
     private List<String> jsSourceExcludes = new ArrayList<>();
 
+    @Parameter(property = "lightweightIncludes")
+    private List<String> lightweightIncludes = new ArrayList<>();
+
     @Parameter(property = "suffix", defaultValue = "min")
     private String suffix;
 
     @Parameter(property = "options", defaultValue = "{}")
     private String options;
 
+    @Parameter(property = "terser.mode", defaultValue = "release")
+    private String mode = "release";
+
+    @Parameter(property = "terser.timings", defaultValue = "false")
+    private boolean timings = false;
+
+    @Parameter(property = "variants")
+    private List<OutputVariant> variants = new ArrayList<>();
+
     @Parameter(property = "encoding")
     private String encoding = defaultCharset().name();
 
+    @Parameter(property = "terser.compilerThreads")
+    private Integer compilerThreads;
+
+    @Parameter(property = "terser.compilationThreshold")
+    private Integer compilationThreshold;
+
+    @Parameter(property = "terser.multiTier")
+    private Boolean multiTier;
+
+    @Parameter(property = "terser.backgroundCompilation")
+    private Boolean backgroundCompilation;
+
+    @Parameter(property = "terser.warmUpIterations", defaultValue = "0")
+    private int warmUpIterations = 0;
+
+    @Parameter(property = "terser.recycleAfterFiles", defaultValue = "0")
+    private int recycleAfterFiles = 0;
+
+    @Parameter(property = "terser.recycleAfterBytes", defaultValue = "0")
+    private long recycleAfterBytes = 0;
+
+    @Parameter(property = "terser.recycleAfterHeapGrowth", defaultValue = "0")
+    private long recycleAfterHeapGrowth = 0;
+
+    @Parameter(property = "terser.splitSize", defaultValue = "0")
+    private long splitSize = 0;
+
+    @Parameter(property = "terser.failurePolicy", defaultValue = "FAIL_FAST")
+    private FailurePolicy failurePolicy = FailurePolicy.FAIL_FAST;
+
+    @Parameter(property = "budgets")
+    private List<SizeBudget> budgets = new ArrayList<>();
+
+    @Parameter(property = "terser.failOnBudget", defaultValue = "true")
+    private boolean failOnBudget = true;
+
+    @Parameter(property = "terser.budgetHistory", defaultValue = "${project.build.directory}/terser-sizes.tsv")
+    private File budgetHistory;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Terser minification is skipped.");
+            return;
+        }
+
+        if (buildContext.isIncremental() && !buildContext.hasDelta(sourceDir)) {
+            getLog().info("No changes in source directory, nothing to do.");
+            return;
+        }
+
+        if (!validate()) {
+            return;
+        }
+
+        final SizeBudgetChecker budgetChecker = createBudgetChecker();
+        final PhaseTimingReport timingReport = createTimingReport();
+
+        // Terser is loaded by the workers while the files are discovered, unless no file is minified by it
+        final ParallelTerserMinificationStrategy strategy =
+                new ParallelTerserMinificationStrategy(getLog(), threads, getRecyclingPolicy(), failurePolicy);
+        final MinificationInitializer initializer = new MinificationInitializer(this);
+        if (!jsSourceFiles.isEmpty() || !lightweightIncludes.containsAll(jsSourceIncludes)) {
+            strategy.warmUp(initializer.getContext());
+        }
+
+        try {
+            if (isMinifiedAsFound()) {
+                if (!minifyAsFound(strategy, initializer, budgetChecker::record, timingReport::record)) {
+                    return;
+                }
+            }
+            else {
+                final Set<Minification> minifications = discover(initializer);
+                if (minifications.isEmpty()) {
+                    return;
+                }
+
+                minify(getLog(), new LightweightMinificationStrategy(strategy, failurePolicy), minifications,
+                        createWriter(minifications),
+                        budgetChecker::record, timingReport::record);
+            }
+        }
+        finally {
+            strategy.cancelWarmUp();
+        }
+
+        report(budgetChecker, timingReport);
+
+        getLog().info("Terser minification execution successful.");
+    }
+
+    /**
+     * Validates the configuration and resolves the files to minify. An empty set is returned when there is
+     * nothing to do.
+     */
+    Set<Minification> findMinifications() throws MojoFailureException {
+        return validate() ? discover(new MinificationInitializer(this)) : Collections.emptySet();
+    }
+
+    /**
+     * Validates the configuration, returning false when there is nothing to do.
+     */
+    private boolean validate() throws MojoFailureException {
         final Charset charset = Charset.forName(encoding);
         if (verbose) {
             getLog().info("Run in the verbose mode.");
@@ -65,7 +226,7 @@ public class TerserMojo extends AbstractMojo {
             getLog().debug(toString());
         }
 
-        if (!terserSrc.exists() || !terserSrc.canRead()) {
+        if (terserSrc != null && (!terserSrc.exists() || !terserSrc.canRead())) {
             getLog().error(terserSrc.getAbsolutePath());
             getLog().error("Given Terser file is not reachable.");
             throw new MojoFailureException("Given Terser file is not reachable.");
@@ -81,39 +242,226 @@ public class TerserMojo extends AbstractMojo {
             throw new MojoFailureException("No Terser options defined.");
         }
 
+        try {
+            if (getTerserMode() == TerserMode.FAST) {
+                getLog().info("Terser is run in fast mode, the compressor is skipped.");
+            }
+        }
+        catch (IllegalArgumentException e) {
+            throw new MojoFailureException(e.getMessage(), e);
+        }
+
+        for (OutputVariant variant : variants) {
+            if (variant.getName() == null || variant.getSuffix() == null || variant.getSuffix().isEmpty()) {
+                throw new MojoFailureException("Output variants need a name and a suffix: " + variant);
+            }
+            if (variant.getSuffix().equals(suffix)) {
+                throw new MojoFailureException("Output variant " + variant.getName() + " has the same suffix as the "
+                        + "main output.");
+            }
+        }
+
         if (jsSourceFiles.isEmpty() && jsSourceIncludes.isEmpty()) {
             getLog().warn("No source files provided, nothing to do.");
-            return;
+            return false;
         }
 
-        final Set<Minification> minifications = new MinificationInitializer(this).getMinification();
+        return true;
+    }
+
+    private Set<Minification> discover(final MinificationInitializer initializer) {
+        final Set<Minification> minifications = initializer.getMinification();
         if (minifications.isEmpty()) {
             getLog().info("No files found to minify.");
-            return;
+            return minifications;
         }
 
         if (verbose) {
             getLog().info(format("Found %s files to minify.", minifications.size()));
         }
 
+        return minifications;
+    }
+
+    /**
+     * Minifies the given files using a single pool of workers and writes the results, passing each result to the
+     * observers before it is written.
+     */
+    @SafeVarargs
+    static void minify(final Log log, final TerserMinificationStrategy strategy,
+            final Set<Minification> minifications, final TargetWriter writer,
+            final Consumer<Minification>... observers) throws MojoExecutionException {
+
+        reportRuntime(log);
+
+        try (TargetWriter closeable = writer) {
+            strategy.execute(minifications)
+                    .flatMap(minification -> Stream.concat(Stream.of(minification),
+                            minification.getVariants().stream()))
+                    .peek(minification -> Stream.of(observers).forEach(observer -> observer.accept(minification)))
+                    .forEach(writer::write);
+        }
+        catch (MinificationException e) {
+            log.error(e.getMessage());
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+        catch (Exception e) {
+            throw new MojoExecutionException("Failed on Terser minification execution.", e);
+        }
+
+        log.info(format("Wrote %d files, skipped %d unchanged files.",
+                writer.getWrittenFiles(), writer.getUnchangedFiles()));
+    }
+
+    /**
+     * Creates the checker of the size budgets, failing on a budget without a pattern or with an invalid size. Called
+     * before any engine is started, so a misconfigured budget fails the build without leaving engines behind.
+     */
+    SizeBudgetChecker createBudgetChecker() throws MojoFailureException {
         try {
-            new ParallelTerserMinificationStrategy(getLog(), threads)
-                    .execute(minifications)
-                    .parallel()
-                    .forEach(this::writeFiles);
+            return new SizeBudgetChecker(budgets, targetDir.toPath(),
+                    Optional.ofNullable(budgetHistory).map(File::toPath));
+        }
+        catch (IllegalArgumentException e) {
+            throw new MojoFailureException("Invalid size budget: " + e.getMessage(), e);
+        }
+    }
+
+    PhaseTimingReport createTimingReport() {
+        return new PhaseTimingReport(targetDir.toPath(), SLOWEST_FILES);
+    }
+
+    /**
+     * Reports the time spent in each phase and checks the size budgets, once all files are written.
+     */
+    void report(final SizeBudgetChecker budgetChecker, final PhaseTimingReport timingReport)
+            throws MojoFailureException {
+
+        timingReport.report().ifPresent(report ->
+                getLog().info("Time spent in each Terser phase:" + lineSeparator() + report));
+        checkBudgets(budgetChecker);
+    }
+
+    /**
+     * Whether files are minified as soon as they are found. Not in incremental builds, nor with lightweight files or
+     * an archive, which need every file known up front.
+     */
+    private boolean isMinifiedAsFound() {
+        return !buildContext.isIncremental() && lightweightIncludes.isEmpty() && targetArchive == null;
+    }
+
+    /**
+     * Submits the files to the workers as the scanner finds them, so scanning overlaps minification, and writes each
+     * result as it completes. Returns whether any file was found.
+     */
+    @SafeVarargs
+    private final boolean minifyAsFound(final ParallelTerserMinificationStrategy strategy,
+            final MinificationInitializer initializer, final Consumer<Minification>... observers)
+            throws MojoExecutionException {
+
+        reportRuntime(getLog());
+
+        final AtomicInteger found = new AtomicInteger();
+        final TargetWriter writer = createWriter(Collections.emptySet());
+        // Results complete on the worker threads, the observers are safe to call from them, while the writer expects
+        // results one at a time, so only the writes are serialised and the budget sizes are measured concurrently
+        final MinificationListener listener = minification -> {
+            final List<Minification> results = Stream.concat(Stream.of(minification),
+                    minification.getVariants().stream()).collect(toList());
+            results.forEach(result -> Stream.of(observers).forEach(observer -> observer.accept(result)));
+            synchronized (writer) {
+                results.forEach(writer::write);
+            }
+        };
+
+        try (TargetWriter closeable = writer;
+             MinificationSession session = strategy.open(listener, Math.max(1, threads) * PENDING_FILES_PER_THREAD)) {
+            initializer.findMinifications(minification -> {
+                found.incrementAndGet();
+                session.submit(minification);
+            });
+        }
+        catch (MinificationException e) {
+            getLog().error(e.getMessage());
+            throw new MojoExecutionException(e.getMessage(), e);
         }
         catch (Exception e) {
             throw new MojoExecutionException("Failed on Terser minification execution.", e);
         }
 
-        getLog().info("Terser minification execution successful.");
+        if (found.get() == 0) {
+            getLog().info("No files found to minify.");
+            return false;
+        }
+
+        if (verbose) {
+            getLog().info(format("Found %s files to minify.", found.get()));
+        }
+        getLog().info(format("Wrote %d files, skipped %d unchanged files.",
+                writer.getWrittenFiles(), writer.getUnchangedFiles()));
+        return true;
     }
 
-    private void writeFiles(Minification minification) {
-        TargetFileWriter.writeTargetFile(minification);
-        if (minification.getSourceMap().isPresent()) {
-            TargetFileWriter.writeMapFile(minification);
+    private void checkBudgets(final SizeBudgetChecker budgetChecker) throws MojoFailureException {
+        final Optional<String> offenders = budgetChecker.check();
+        if (!offenders.isPresent()) {
+            return;
+        }
+
+        final String message = "Size budgets exceeded:" + lineSeparator() + offenders.get();
+        if (failOnBudget) {
+            getLog().error(message);
+            throw new MojoFailureException("Size budgets exceeded, see the table above.");
         }
+        getLog().warn(message);
+    }
+
+    TargetWriter createWriter(final Set<Minification> minifications) {
+        final TargetWriter writer = targetArchive != null
+                ? new TargetArchiveWriter(targetArchive.toPath(), targetDir.toPath(), minifications, gzip)
+                : new TargetFileWriter(TargetFileWriter.DEFAULT_MAX_PENDING_WRITES, buildContext, gzip);
+
+        if (!contentHash) {
+            return writer;
+        }
+
+        final File manifestFile = manifest == null ? new File(targetDir, DEFAULT_MANIFEST) : manifest;
+        return new ContentHashingWriter(writer, targetDir.toPath(), manifestFile.toPath(), suffix, hashLength);
+    }
+
+    RecyclingPolicy getRecyclingPolicy() {
+        return ImmutableRecyclingPolicy.builder()
+                .maxFiles(recycleAfterFiles)
+                .maxInputBytes(recycleAfterBytes)
+                .maxHeapGrowth(recycleAfterHeapGrowth)
+                .build();
+    }
+
+    private static void reportRuntime(final Log log) {
+        if (TerserEngine.isOptimizingRuntime()) {
+            log.info("Terser runs with optimizing runtime compilation.");
+        }
+        else {
+            log.warn("Optimizing runtime compilation is not available, Terser runs in the Truffle interpreter which "
+                    + "is considerably slower. Run the build on GraalVM, or enable JVMCI with the Graal compiler on "
+                    + "the module path, to use the compiled fast path. Compilation settings are ignored.");
+        }
+    }
+
+    public BuildContext getBuildContext() {
+        return this.buildContext;
+    }
+
+    public void setBuildContext(BuildContext buildContext) {
+        this.buildContext = buildContext;
+    }
+
+    public boolean isSkip() {
+        return this.skip;
+    }
+
+    public void setSkip(boolean skip) {
+        this.skip = skip;
     }
 
     public boolean isVerbose() {
@@ -164,6 +512,46 @@ public class TerserMojo extends AbstractMojo {
         this.targetDir = targetDir;
     }
 
+    public File getTargetArchive() {
+        return this.targetArchive;
+    }
+
+    public void setTargetArchive(File targetArchive) {
+        this.targetArchive = targetArchive;
+    }
+
+    public boolean isGzip() {
+        return this.gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public boolean isContentHash() {
+        return this.contentHash;
+    }
+
+    public void setContentHash(boolean contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getHashLength() {
+        return this.hashLength;
+    }
+
+    public void setHashLength(int hashLength) {
+        this.hashLength = hashLength;
+    }
+
+    public File getManifest() {
+        return this.manifest;
+    }
+
+    public void setManifest(File manifest) {
+        this.manifest = manifest;
+    }
+
     public List<String> getJsSourceFiles() {
         return this.jsSourceFiles;
     }
@@ -188,6 +576,14 @@ public class TerserMojo extends AbstractMojo {
         this.jsSourceExcludes = jsSourceExcludes;
     }
 
+    public List<String> getLightweightIncludes() {
+        return this.lightweightIncludes;
+    }
+
+    public void setLightweightIncludes(List<String> lightweightIncludes) {
+        this.lightweightIncludes = lightweightIncludes;
+    }
+
     public String getSuffix() {
         return this.suffix;
     }
@@ -204,6 +600,44 @@ public class TerserMojo extends AbstractMojo {
         this.options = options;
     }
 
+    public String getMode() {
+        return this.mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    TerserMode getTerserMode() {
+        return TerserMode.fromName(mode);
+    }
+
+    String getTerserOptions() {
+        return getTerserOptions(options);
+    }
+
+    /**
+     * The options Terser is run with, after applying the mode and asking for phase timings when enabled.
+     */
+    String getTerserOptions(final String options) {
+        final String terserOptions = getTerserMode().apply(options);
+        if (!timings) {
+            return terserOptions;
+        }
+
+        final Map<String, Object> timedOptions = TerserEngine.parseOptions(terserOptions);
+        timedOptions.put("timings", true);
+        return TerserEngine.formatOptions(timedOptions);
+    }
+
+    public boolean isTimings() {
+        return this.timings;
+    }
+
+    public void setTimings(boolean timings) {
+        this.timings = timings;
+    }
+
     public String getEncoding() {
         return this.encoding;
     }
@@ -212,6 +646,118 @@ public class TerserMojo extends AbstractMojo {
         this.encoding = encoding;
     }
 
+    public Integer getCompilerThreads() {
+        return this.compilerThreads;
+    }
+
+    public void setCompilerThreads(Integer compilerThreads) {
+        this.compilerThreads = compilerThreads;
+    }
+
+    public Integer getCompilationThreshold() {
+        return this.compilationThreshold;
+    }
+
+    public void setCompilationThreshold(Integer compilationThreshold) {
+        this.compilationThreshold = compilationThreshold;
+    }
+
+    public Boolean getMultiTier() {
+        return this.multiTier;
+    }
+
+    public void setMultiTier(Boolean multiTier) {
+        this.multiTier = multiTier;
+    }
+
+    public Boolean getBackgroundCompilation() {
+        return this.backgroundCompilation;
+    }
+
+    public void setBackgroundCompilation(Boolean backgroundCompilation) {
+        this.backgroundCompilation = backgroundCompilation;
+    }
+
+    public int getWarmUpIterations() {
+        return this.warmUpIterations;
+    }
+
+    public void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    public int getRecycleAfterFiles() {
+        return this.recycleAfterFiles;
+    }
+
+    public void setRecycleAfterFiles(int recycleAfterFiles) {
+        this.recycleAfterFiles = recycleAfterFiles;
+    }
+
+    public long getRecycleAfterBytes() {
+        return this.recycleAfterBytes;
+    }
+
+    public void setRecycleAfterBytes(long recycleAfterBytes) {
+        this.recycleAfterBytes = recycleAfterBytes;
+    }
+
+    public long getRecycleAfterHeapGrowth() {
+        return this.recycleAfterHeapGrowth;
+    }
+
+    public void setRecycleAfterHeapGrowth(long recycleAfterHeapGrowth) {
+        this.recycleAfterHeapGrowth = recycleAfterHeapGrowth;
+    }
+
+    public long getSplitSize() {
+        return this.splitSize;
+    }
+
+    public void setSplitSize(long splitSize) {
+        this.splitSize = splitSize;
+    }
+
+    public FailurePolicy getFailurePolicy() {
+        return this.failurePolicy;
+    }
+
+    public void setFailurePolicy(FailurePolicy failurePolicy) {
+        this.failurePolicy = failurePolicy;
+    }
+
+    public List<OutputVariant> getVariants() {
+        return this.variants;
+    }
+
+    public void setVariants(List<OutputVariant> variants) {
+        this.variants = variants;
+    }
+
+    public List<SizeBudget> getBudgets() {
+        return this.budgets;
+    }
+
+    public void setBudgets(List<SizeBudget> budgets) {
+        this.budgets = budgets;
+    }
+
+    public boolean isFailOnBudget() {
+        return this.failOnBudget;
+    }
+
+    public void setFailOnBudget(boolean failOnBudget) {
+        this.failOnBudget = failOnBudget;
+    }
+
+    public File getBudgetHistory() {
+        return this.budgetHistory;
+    }
+
+    public void setBudgetHistory(File budgetHistory) {
+        this.budgetHistory = budgetHistory;
+    }
+
     public void setJsSourceFile(String jsSourceFile) {
         jsSourceFiles.add(jsSourceFile);
     }
@@ -227,18 +773,41 @@ public class TerserMojo extends AbstractMojo {
     @Override
     public String toString() {
         return "TerserMojo{" +
-                "verbose=" + verbose +
+                "skip=" + skip +
+                ", verbose=" + verbose +
                 ", threads=" + threads +
                 ", terserSrc=" + terserSrc +
                 ", sourceMapSrc=" + sourceMapSrc +
                 ", sourceDir=" + sourceDir +
                 ", targetDir=" + targetDir +
+                ", targetArchive=" + targetArchive +
+                ", gzip=" + gzip +
+                ", contentHash=" + contentHash +
+                ", hashLength=" + hashLength +
+                ", manifest=" + manifest +
                 ", jsSourceFiles=" + jsSourceFiles +
                 ", jsSourceIncludes=" + jsSourceIncludes +
                 ", jsSourceExcludes=" + jsSourceExcludes +
+                ", lightweightIncludes=" + lightweightIncludes +
                 ", suffix='" + suffix + '\'' +
                 ", options='" + options + '\'' +
+                ", mode='" + mode + '\'' +
+                ", timings=" + timings +
+                ", variants=" + variants +
                 ", encoding='" + encoding + '\'' +
+                ", compilerThreads=" + compilerThreads +
+                ", compilationThreshold=" + compilationThreshold +
+                ", multiTier=" + multiTier +
+                ", backgroundCompilation=" + backgroundCompilation +
+                ", warmUpIterations=" + warmUpIterations +
+                ", recycleAfterFiles=" + recycleAfterFiles +
+                ", recycleAfterBytes=" + recycleAfterBytes +
+                ", recycleAfterHeapGrowth=" + recycleAfterHeapGrowth +
+                ", splitSize=" + splitSize +
+                ", failurePolicy=" + failurePolicy +
+                ", budgets=" + budgets +
+                ", failOnBudget=" + failOnBudget +
+                ", budgetHistory=" + budgetHistory +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,330 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the top-level statement boundaries at which a script can be minified in separate segments, such as between the
+ * wrappers of libraries concatenated into one bundle. Only boundaries at the start of a line are used, so every
+ * segment starts at the first column of its line in the original.
+ * <p>
+ * The script is scanned rather than parsed: comments, strings, template literals and regular expressions are skipped
+ * and brackets are counted. A boundary is only taken where the previous statement has clearly ended, that is after a
+ * {@code ;} that isn't followed by {@code else}, {@code catch}, {@code finally} or {@code while}, or after a
+ * {@code }} when a declaration or statement keyword follows. Scripts starting with a directive such as
+ * {@code "use strict"} aren't split, as the directive applies to all of it.
+ */
+final class BundleSplitter {
+    private static final Set<String> CONTINUATIONS = new HashSet<>(Arrays.asList("else", "catch", "finally",
+            "while"));
+    private static final Set<String> STATEMENTS = new HashSet<>(Arrays.asList("var", "let", "const", "function",
+            "class", "if", "for", "switch", "try", "throw"));
+    private static final Set<String> REGEX_KEYWORDS = new HashSet<>(Arrays.asList("return", "typeof", "case", "do",
+            "else", "in", "of", "new", "delete", "void", "throw", "instanceof", "yield", "await"));
+    private static final String REGEX_PRECEDING = "(,=:[!&|?{};+-*%<>~^";
+    private static final char OPERAND = '0';
+
+    private final String code;
+    private final Deque<Integer> templates = new ArrayDeque<>();
+    private int position;
+    private int depth;
+    private char previous;
+    private String word = "";
+
+    private BundleSplitter(final String code) {
+        this.code = code;
+    }
+
+    /**
+     * Splits the code into segments of at least the given number of characters, apart from the last. The code is
+     * returned as a single segment when it has no boundary, or can't be scanned.
+     */
+    static List<Segment> split(final String code, final long segmentSize) {
+        final Segment whole = new Segment(0, code.length(), 0);
+        if (startsWithDirective(code)) {
+            return Collections.singletonList(whole);
+        }
+
+        try {
+            return new BundleSplitter(code).scan(segmentSize);
+        }
+        catch (IllegalStateException e) {
+            return Collections.singletonList(whole);
+        }
+    }
+
+    private List<Segment> scan(final long segmentSize) {
+        final List<Segment> segments = new ArrayList<>();
+        int start = 0;
+        int line = 0;
+
+        while (position < code.length()) {
+            final char c = code.charAt(position);
+            final char next = position + 1 < code.length() ? code.charAt(position + 1) : 0;
+
+            if (c == '\n') {
+                position++;
+                if (depth == 0 && position - start >= segmentSize && isBoundary()) {
+                    segments.add(new Segment(start, position, line));
+                    line += countLines(start, position);
+                    start = position;
+                }
+            }
+            else if (Character.isWhitespace(c)) {
+                position++;
+            }
+            else if (c == '/' && (next == '/' || next == '*')) {
+                position = skipComment(position);
+            }
+            else if (c == '\'' || c == '"') {
+                position = skipString(c);
+                setOperand();
+            }
+            else if (c == '`') {
+                position = skipTemplate(position + 1);
+            }
+            else if (c == '/' && isRegexAllowed()) {
+                position = skipRegex();
+                setOperand();
+            }
+            else if (Character.isJavaIdentifierPart(c)) {
+                final int end = skipWord(position);
+                word = code.substring(position, end);
+                previous = c;
+                position = end;
+            }
+            else {
+                punctuation(c);
+                position++;
+            }
+        }
+
+        if (depth != 0 || !templates.isEmpty()) {
+            throw new IllegalStateException("Unbalanced brackets");
+        }
+        segments.add(new Segment(start, code.length(), line));
+        return segments;
+    }
+
+    private void punctuation(final char c) {
+        if (c == '(' || c == '[' || c == '{') {
+            depth++;
+        }
+        else if (c == ')' || c == ']' || c == '}') {
+            if (--depth < 0) {
+                throw new IllegalStateException("Unbalanced brackets");
+            }
+            if (c == '}' && !templates.isEmpty() && templates.peek() == depth) {
+                // The end of a template substitution, so the rest of the template follows
+                templates.pop();
+                position = skipTemplate(position + 1) - 1;
+                return;
+            }
+        }
+        previous = c;
+        word = "";
+    }
+
+    /**
+     * Whether the line starting at the current position starts a new top-level statement.
+     */
+    private boolean isBoundary() {
+        final int next = skipSpace(position);
+        if (next >= code.length()) {
+            return false;
+        }
+
+        final String nextWord = code.substring(next, skipWord(next));
+        if (previous == ';') {
+            return !CONTINUATIONS.contains(nextWord);
+        }
+        if (previous == '}') {
+            return code.charAt(next) == ';' || STATEMENTS.contains(nextWord);
+        }
+        return false;
+    }
+
+    private boolean isRegexAllowed() {
+        if (previous == 0 || REGEX_PRECEDING.indexOf(previous) >= 0) {
+            return true;
+        }
+        return !word.isEmpty() && REGEX_KEYWORDS.contains(word);
+    }
+
+    private void setOperand() {
+        previous = OPERAND;
+        word = "";
+    }
+
+    /**
+     * Skips the template from the given position up to its end, or up to a substitution, which is then scanned as code.
+     */
+    private int skipTemplate(final int from) {
+        for (int i = from; i < code.length(); i++) {
+            final char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            }
+            else if (c == '`') {
+                setOperand();
+                return i + 1;
+            }
+            else if (c == '$' && i + 1 < code.length() && code.charAt(i + 1) == '{') {
+                templates.push(depth);
+                depth++;
+                previous = '{';
+                word = "";
+                return i + 2;
+            }
+        }
+        throw new IllegalStateException("Unterminated template");
+    }
+
+    private int skipString(final char quote) {
+        for (int i = position + 1; i < code.length(); i++) {
+            final char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            }
+            else if (c == quote) {
+                return i + 1;
+            }
+            else if (c == '\n') {
+                break;
+            }
+        }
+        throw new IllegalStateException("Unterminated string");
+    }
+
+    private int skipRegex() {
+        boolean inClass = false;
+        for (int i = position + 1; i < code.length(); i++) {
+            final char c = code.charAt(i);
+            if (c == '\\') {
+                i++;
+            }
+            else if (c == '[') {
+                inClass = true;
+            }
+            else if (c == ']') {
+                inClass = false;
+            }
+            else if (c == '/' && !inClass) {
+                return skipWord(i + 1);
+            }
+            else if (c == '\n') {
+                break;
+            }
+        }
+        throw new IllegalStateException("Unterminated regular expression");
+    }
+
+    private int skipComment(final int from) {
+        if (code.charAt(from + 1) == '/') {
+            final int end = code.indexOf('\n', from);
+            return end < 0 ? code.length() : end;
+        }
+        final int end = code.indexOf("*/", from + 2);
+        if (end < 0) {
+            throw new IllegalStateException("Unterminated comment");
+        }
+        return end + 2;
+    }
+
+    /**
+     * Skips whitespace and comments, returning the position of the next token.
+     */
+    private int skipSpace(final int from) {
+        int i = from;
+        while (i < code.length()) {
+            final char c = code.charAt(i);
+            final char next = i + 1 < code.length() ? code.charAt(i + 1) : 0;
+            if (Character.isWhitespace(c)) {
+                i++;
+            }
+            else if (c == '/' && (next == '/' || next == '*')) {
+                i = skipComment(i);
+            }
+            else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private int skipWord(final int from) {
+        int i = from;
+        while (i < code.length() && Character.isJavaIdentifierPart(code.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int countLines(final int from, final int to) {
+        int lines = 0;
+        for (int i = from; i < to; i++) {
+            if (code.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static boolean startsWithDirective(final String code) {
+        try {
+            final int first = new BundleSplitter(code).skipSpace(0);
+            return first < code.length() && (code.charAt(first) == '\'' || code.charAt(first) == '"');
+        }
+        catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * A part of the code, from the start of a line.
+     */
+    static final class Segment {
+        private final int start;
+        private final int end;
+        private final int line;
+
+        Segment(final int start, final int end, final int line) {
+            this.start = start;
+            this.end = end;
+            this.line = line;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        /**
+         * The line the segment starts on, counting from zero.
+         */
+        int getLine() {
+            return line;
+        }
+
+        /**
+         * Returns the segment preceded by a line break for each line before it, so positions in the segment, and those
+         * Terser reports for it, are the positions in the original code.
+         */
+        String getCode(final String code) {
+            final StringBuilder builder = new StringBuilder(line + end - start);
+            for (int i = 0; i < line; i++) {
+                builder.append('\n');
+            }
+            return builder.append(code, start, end).toString();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.immutables.value.Value;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tuning for Truffle runtime compilation. These settings only take effect when an optimizing Truffle runtime is
+ * available (GraalVM, or the Graal compiler enabled through JVMCI); in the interpreter they are ignored.
+ */
+@Value.Immutable
+public interface CompilationSettings {
+
+    Optional<Integer> getCompilerThreads();
+
+    Optional<Integer> getCompilationThreshold();
+
+    Optional<Boolean> getMultiTier();
+
+    Optional<Boolean> getBackgroundCompilation();
+
+    /**
+     * Number of times a synthetic input is minified after Terser is loaded, giving the compiler a head start on the
+     * hot paths before real files arrive.
+     */
+    @Value.Default
+    default int getWarmUpIterations() {
+        return 0;
+    }
+
+    @Value.Derived
+    default Map<String, String> getEngineOptions() {
+        final Map<String, String> options = new LinkedHashMap<>();
+        getCompilerThreads().ifPresent(value -> options.put("engine.CompilerThreads", value.toString()));
+        getCompilationThreshold().ifPresent(value -> {
+            options.put("engine.SingleTierCompilationThreshold", value.toString());
+            options.put("engine.LastTierCompilationThreshold", value.toString());
+        });
+        getMultiTier().ifPresent(value -> options.put("engine.MultiTier", value.toString()));
+        getBackgroundCompilation().ifPresent(value -> options.put("engine.BackgroundCompilation", value.toString()));
+        return options;
+    }
+
+}
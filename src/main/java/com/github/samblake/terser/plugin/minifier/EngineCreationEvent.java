@@ -0,0 +1,19 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering the creation of a {@link TerserEngine}, including loading Terser and the warm up.
+ */
+@Name("com.github.samblake.terser.EngineCreation")
+@Label("Engine Creation")
+@Category({ "Terser" })
+@Description("Creation of a script context with Terser loaded")
+class EngineCreationEvent extends Event {
+    @Label("Warm Up Iterations")
+    int warmUpIterations;
+}
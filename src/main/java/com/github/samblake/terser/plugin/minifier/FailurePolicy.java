@@ -0,0 +1,16 @@
+package com.github.samblake.terser.plugin.minifier;
+
+/**
+ * How a {@link ParallelTerserMinificationStrategy} reacts to a file that fails to minify.
+ */
+public enum FailurePolicy {
+    /**
+     * Stop taking files, cancel the minifications in progress on the other workers and report the failure.
+     */
+    FAIL_FAST,
+
+    /**
+     * Minify every file and report all failures together.
+     */
+    COLLECT_ALL
+}
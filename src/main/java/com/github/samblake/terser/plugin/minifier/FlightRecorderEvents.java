@@ -0,0 +1,27 @@
+package com.github.samblake.terser.plugin.minifier;
+
+/**
+ * Tells whether the flight recorder event API is available, which it isn't on Java 8 before update 262 or on runtimes
+ * linked without the {@code jdk.jfr} module. The events of the plugin are only created when it is, so their classes
+ * are never loaded otherwise and recording is skipped rather than failing the build.
+ */
+public final class FlightRecorderEvents {
+    private static final boolean AVAILABLE = isPresent("jdk.jfr.Event");
+
+    private FlightRecorderEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    static boolean isPresent(final String className) {
+        try {
+            Class.forName(className, false, FlightRecorderEvents.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import static com.github.samblake.terser.plugin.minifier.RecyclingPolicy.PREPARE_RATIO;
+
+/**
+ * Tells the workers of a session when the retained heap has grown by the maximum of the {@link RecyclingPolicy}. The
+ * heap is that of the whole JVM, measured after the most recent garbage collection, so it only changes when a
+ * collection runs and includes growth caused by any thread, other workers and builds included. As the growth can't be
+ * attributed to a worker, the workers share a trigger and each crossing of the limit is claimed by a single worker,
+ * which replaces its minifier; the growth is then measured again from the heap at that moment.
+ */
+class HeapGrowthTrigger {
+    private final long maxGrowth;
+    private long baseline;
+    private boolean preparing;
+
+    HeapGrowthTrigger(final long maxGrowth) {
+        this.maxGrowth = maxGrowth;
+        this.baseline = maxGrowth > 0 ? retainedHeap() : 0;
+    }
+
+    /**
+     * Whether the caller is to warm up a replacement minifier, answered true once as the growth nears the limit.
+     */
+    synchronized boolean claimPreparation() {
+        if (preparing || !RecyclingPolicy.reaches(getGrowth(), maxGrowth, PREPARE_RATIO)) {
+            return false;
+        }
+        preparing = true;
+        return true;
+    }
+
+    /**
+     * Whether the caller is to replace its minifier, answered true once each time the growth reaches the limit.
+     */
+    synchronized boolean claimRecycling() {
+        if (!RecyclingPolicy.reaches(getGrowth(), maxGrowth, 1)) {
+            return false;
+        }
+        baseline = retainedHeap();
+        preparing = false;
+        return true;
+    }
+
+    /**
+     * The growth since the last time the limit was reached, zero when not measured.
+     */
+    synchronized long getGrowth() {
+        return maxGrowth > 0 ? retainedHeap() - baseline : 0;
+    }
+
+    /**
+     * Sums the heap in use after the most recent collection of each pool, which tracks retained memory rather than
+     * garbage that has yet to be collected.
+     */
+    private static long retainedHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                final MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null) {
+                    used += usage.getUsed();
+                }
+            }
+        }
+        return used;
+    }
+}
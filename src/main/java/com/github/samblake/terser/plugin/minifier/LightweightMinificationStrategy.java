@@ -0,0 +1,117 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.partitioningBy;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Minifies files with the {@link LightweightMinifier}, which only removes comments and whitespace, on the calling
+ * thread and without starting a script engine. Given a strategy for the other files it only minifies those whose
+ * context selects the lightweight minifier, and passes the rest to that strategy once its own are done.
+ * <p>
+ * A source map is generated when the Terser options ask for one, and its URL added as Terser would.
+ * <p>
+ * Failures follow the {@link FailurePolicy}: with {@link FailurePolicy#FAIL_FAST} the first failing file stops the
+ * minification, otherwise every file, including those of the other strategy, is minified and the failures of both are
+ * reported together.
+ */
+public class LightweightMinificationStrategy implements TerserMinificationStrategy {
+    private final Optional<TerserMinificationStrategy> others;
+    private final FailurePolicy failurePolicy;
+
+    /**
+     * Minifies every file with the lightweight minifier.
+     */
+    public LightweightMinificationStrategy() {
+        this.others = Optional.empty();
+        this.failurePolicy = FailurePolicy.FAIL_FAST;
+    }
+
+    public LightweightMinificationStrategy(final TerserMinificationStrategy others) {
+        this(others, FailurePolicy.FAIL_FAST);
+    }
+
+    public LightweightMinificationStrategy(final TerserMinificationStrategy others,
+            final FailurePolicy failurePolicy) {
+
+        this.others = Optional.of(requireNonNull(others));
+        this.failurePolicy = requireNonNull(failurePolicy);
+    }
+
+    @Override
+    public Stream<Minification> execute(final Set<Minification> minifications) {
+        final Map<Boolean, Set<Minification>> lightweight = minifications.stream()
+                .collect(partitioningBy(minification -> !others.isPresent()
+                        || minification.getContext().isLightweight(), toSet()));
+
+        final LightweightMinifier minifier = new LightweightMinifier();
+        final List<Minification> results = new ArrayList<>();
+        final Map<Path, Throwable> failures = new HashMap<>();
+        for (Minification minification : lightweight.get(true)) {
+            try {
+                results.add(minify(minifier, minification));
+            }
+            catch (IOException | RuntimeException e) {
+                if (failurePolicy == FailurePolicy.FAIL_FAST) {
+                    throw new MinificationException(Collections.singletonMap(minification.getSource(), e));
+                }
+                failures.put(minification.getSource(), e);
+            }
+        }
+
+        Stream<Minification> rest = Stream.empty();
+        if (!lightweight.get(false).isEmpty()) {
+            try {
+                rest = others.get().execute(lightweight.get(false));
+            }
+            catch (MinificationException e) {
+                if (failures.isEmpty()) {
+                    throw e;
+                }
+                failures.putAll(e.getFailures());
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw new MinificationException(failures);
+        }
+        return Stream.concat(results.stream(), rest);
+    }
+
+    private static Minification minify(final LightweightMinifier minifier, final Minification minification)
+            throws IOException {
+
+        final MinificationContext context = minification.getContext();
+        if (context.isVerbose()) {
+            context.getLog().info("Stripping " + minification.getSource() + " -> " + minification.getTarget());
+        }
+
+        final Map<String, Object> options = TerserEngine.parseOptions(context.getOptions());
+        final Object sourceMap = options.get("sourceMap");
+        final boolean mapped = sourceMap != null && !Boolean.FALSE.equals(sourceMap);
+
+        final TerserResult result = minifier.minify(TerserMinifier.read(minification),
+                mapped ? Optional.of(minification.getSource().getFileName().toString()) : Optional.empty(),
+                Optional.of(minification.getTarget().getFileName().toString()));
+
+        final Object url = sourceMap instanceof Map ? ((Map<String, Object>)sourceMap).get("url") : null;
+        final String code = url instanceof String && result.getSourceMap().isPresent()
+                ? result.getCode() + SourceMapJoiner.sourceMappingUrl((String)url, result.getSourceMap().get())
+                : result.getCode();
+
+        return ImmutableMinification.copyOf(minification)
+                .withResult(code)
+                .withSourceMap(result.getSourceMap());
+    }
+}
@@ -0,0 +1,422 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Removes comments and whitespace from JavaScript in a single pass, without starting a script engine. Strings,
+ * template literals and regular expressions are copied as they are, as are comments starting with {@code /*!} or
+ * holding {@code @license} or {@code @preserve}. Nothing is renamed or rewritten.
+ * <p>
+ * A line break is kept wherever leaving it out could change how automatic semicolon insertion applies, that is unless
+ * it follows one of {@code { ( [ , ;} or precedes one of {@code ) ] } , ;}, and a space is kept where two tokens would
+ * otherwise run together. Whether a {@code /} starts a regular expression is told from the token before it, as Terser
+ * isn't there to parse the code, so scripts dividing the result of a block, such as {@code if (a) /b/.test(c)}, aren't
+ * supported.
+ * <p>
+ * A minifier is not thread safe, but is cheap to create.
+ */
+public class LightweightMinifier {
+    private static final String[] REGEX_KEYWORDS = { "return", "typeof", "case", "do", "else", "in", "of", "new",
+            "delete", "void", "throw", "instanceof", "yield", "await" };
+    private static final String REGEX_PRECEDING = "(,=:[!&|?{};+-*%<>~^";
+    private static final String OPENING = "{([,;";
+    private static final String CLOSING = ")]},;";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Deque<Integer> templates = new ArrayDeque<>();
+    private String code;
+    private StringBuilder out;
+    private int position;
+    private int depth;
+
+    private char last;
+    private int wordStart;
+    private int wordEnd;
+    private boolean gap;
+    private boolean gapLineBreak;
+
+    // Source map state, only kept when a source map is asked for
+    private boolean mapping;
+    private int[] mappings = new int[0];
+    private int mappingCount;
+    private boolean mapNext;
+    private int line;
+    private int lineStart;
+    private int outLine;
+    private int outLineStart;
+
+    /**
+     * Minifies the code without a source map.
+     */
+    public TerserResult minify(final String code) {
+        return minify(code, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * Minifies the code with a source map mapping every token back to the named source, when a source name is given.
+     */
+    public TerserResult minify(final String code, final Optional<String> sourceName, final Optional<String> file) {
+        reset(code, sourceName.isPresent());
+        scan();
+        return ImmutableTerserResult.builder()
+                .code(out.toString())
+                .sourceMap(sourceName.map(source -> toSourceMap(source, file)))
+                .build();
+    }
+
+    private void reset(final String code, final boolean mapping) {
+        this.code = code;
+        this.out = new StringBuilder(code.length() / 2);
+        this.templates.clear();
+        this.position = 0;
+        this.depth = 0;
+        this.last = 0;
+        this.wordStart = 0;
+        this.wordEnd = 0;
+        this.gap = false;
+        this.gapLineBreak = false;
+        this.mapping = mapping;
+        this.mappingCount = 0;
+        this.mapNext = true;
+        this.line = 0;
+        this.lineStart = 0;
+        this.outLine = 0;
+        this.outLineStart = 0;
+    }
+
+    private void scan() {
+        final int length = code.length();
+        while (position < length) {
+            final char c = code.charAt(position);
+            final char next = position + 1 < length ? code.charAt(position + 1) : 0;
+
+            if (isWhitespace(c)) {
+                gapLineBreak |= isLineBreak(c);
+                gap = true;
+                skip();
+            }
+            else if (c == '/' && next == '/') {
+                while (position < length && !isLineBreak(code.charAt(position))) {
+                    skip();
+                }
+                gap = true;
+            }
+            else if (c == '/' && next == '*') {
+                comment();
+            }
+            else if (c == '\'' || c == '"') {
+                startToken(c);
+                copyString(c);
+                last = c;
+            }
+            else if (c == '`') {
+                startToken(c);
+                copy();
+                copyTemplate();
+            }
+            else if (c == '/' && isRegexAllowed()) {
+                startToken(c);
+                copyRegex();
+                // An operand, so a following slash divides, and a following word is kept apart from the flags
+                last = '0';
+                wordStart = wordEnd = 0;
+            }
+            else if (isWordPart(c)) {
+                startToken(c);
+                wordStart = position;
+                while (position < length && isWordPart(code.charAt(position))) {
+                    copy();
+                }
+                wordEnd = position;
+                last = code.charAt(position - 1);
+            }
+            else {
+                startToken(c);
+                punctuation(c);
+            }
+        }
+    }
+
+    private void punctuation(final char c) {
+        if (c == '(' || c == '[' || c == '{') {
+            depth++;
+        }
+        else if (c == ')' || c == ']' || c == '}') {
+            depth--;
+            if (c == '}' && !templates.isEmpty() && templates.peek() == depth) {
+                // The end of a template substitution, the rest of the template follows
+                templates.pop();
+                copy();
+                copyTemplate();
+                return;
+            }
+        }
+        copy();
+        last = c;
+        wordStart = wordEnd = 0;
+    }
+
+    /**
+     * Writes the whitespace needed between the previous token and the one starting with the given character.
+     */
+    private void startToken(final char c) {
+        if (gap && last != 0) {
+            if (gapLineBreak && OPENING.indexOf(last) < 0 && CLOSING.indexOf(c) < 0) {
+                append('\n');
+            }
+            else if (needsSpace(c)) {
+                append(' ');
+            }
+        }
+        if (gap) {
+            mapNext = true;
+        }
+        gap = false;
+        gapLineBreak = false;
+    }
+
+    private boolean needsSpace(final char c) {
+        return isWordPart(last) && (isWordPart(c) || c == '.' && isDigit(last))
+                || (last == '+' || last == '-') && c == last
+                || last == '/' && (c == '/' || c == '*')
+                || last == '<' && c == '!'
+                || last == '-' && c == '>';
+    }
+
+    private void comment() {
+        final int end = code.indexOf("*/", position + 2);
+        final int stop = end < 0 ? code.length() : end + 2;
+        if (isPreserved(position, stop)) {
+            startToken('/');
+            while (position < stop) {
+                copy();
+            }
+            // The comment separates the tokens around it, but leaves the previous token as it was
+            gap = true;
+            return;
+        }
+
+        while (position < stop) {
+            gapLineBreak |= isLineBreak(code.charAt(position));
+            skip();
+        }
+        gap = true;
+    }
+
+    private boolean isPreserved(final int start, final int end) {
+        if (start + 2 < end && code.charAt(start + 2) == '!') {
+            return true;
+        }
+        final String comment = code.substring(start, end);
+        return comment.contains("@license") || comment.contains("@preserve");
+    }
+
+    private void copyString(final char quote) {
+        copy();
+        while (position < code.length()) {
+            final char c = code.charAt(position);
+            if (c == '\\' && position + 1 < code.length()) {
+                copy();
+                copy();
+            }
+            else if (c == quote) {
+                copy();
+                return;
+            }
+            else if (isLineBreak(c)) {
+                // Unterminated, left for the engine to report
+                return;
+            }
+            else {
+                copy();
+            }
+        }
+    }
+
+    /**
+     * Copies the template up to its end, or up to a substitution, which is then minified as code.
+     */
+    private void copyTemplate() {
+        while (position < code.length()) {
+            final char c = code.charAt(position);
+            if (c == '\\' && position + 1 < code.length()) {
+                copy();
+                copy();
+            }
+            else if (c == '`') {
+                copy();
+                last = '`';
+                wordStart = wordEnd = 0;
+                return;
+            }
+            else if (c == '$' && position + 1 < code.length() && code.charAt(position + 1) == '{') {
+                copy();
+                copy();
+                templates.push(depth);
+                depth++;
+                last = '{';
+                wordStart = wordEnd = 0;
+                return;
+            }
+            else {
+                copy();
+            }
+        }
+    }
+
+    private void copyRegex() {
+        boolean inClass = false;
+        copy();
+        while (position < code.length()) {
+            final char c = code.charAt(position);
+            if (c == '\\' && position + 1 < code.length()) {
+                copy();
+                copy();
+            }
+            else if (isLineBreak(c)) {
+                return;
+            }
+            else {
+                copy();
+                if (c == '[') {
+                    inClass = true;
+                }
+                else if (c == ']') {
+                    inClass = false;
+                }
+                else if (c == '/' && !inClass) {
+                    break;
+                }
+            }
+        }
+        while (position < code.length() && isWordPart(code.charAt(position))) {
+            copy();
+        }
+    }
+
+    private boolean isRegexAllowed() {
+        if (last == 0 || REGEX_PRECEDING.indexOf(last) >= 0) {
+            return true;
+        }
+        if (wordEnd > wordStart) {
+            for (String keyword : REGEX_KEYWORDS) {
+                if (keyword.length() == wordEnd - wordStart
+                        && code.regionMatches(wordStart, keyword, 0, keyword.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the character at the current position to the output.
+     */
+    private void copy() {
+        if (mapping && mapNext) {
+            addMapping();
+        }
+        final char c = code.charAt(position);
+        append(c);
+        skip();
+        if (c == '\n') {
+            mapNext = true;
+        }
+    }
+
+    private void append(final char c) {
+        out.append(c);
+        if (c == '\n') {
+            outLine++;
+            outLineStart = out.length();
+        }
+    }
+
+    /**
+     * Moves past the character at the current position, keeping track of the line it is on.
+     */
+    private void skip() {
+        if (code.charAt(position) == '\n') {
+            line++;
+            lineStart = position + 1;
+        }
+        position++;
+    }
+
+    private void addMapping() {
+        if (mappingCount + 4 > mappings.length) {
+            mappings = Arrays.copyOf(mappings, Math.max(64, mappings.length * 2));
+        }
+        mappings[mappingCount++] = outLine;
+        mappings[mappingCount++] = out.length() - outLineStart;
+        mappings[mappingCount++] = line;
+        mappings[mappingCount++] = position - lineStart;
+        mapNext = false;
+    }
+
+    private String toSourceMap(final String source, final Optional<String> file) {
+        final StringBuilder encoded = new StringBuilder(mappingCount * 2);
+        int generatedLine = 0;
+        int previousColumn = 0;
+        int previousLine = 0;
+        int previousSourceColumn = 0;
+        for (int i = 0; i < mappingCount; i += 4) {
+            final boolean first = i == 0 || mappings[i] != generatedLine;
+            while (generatedLine < mappings[i]) {
+                encoded.append(';');
+                generatedLine++;
+                previousColumn = 0;
+            }
+            if (!first) {
+                encoded.append(',');
+            }
+            SourceMapJoiner.encode(encoded, mappings[i + 1] - previousColumn);
+            SourceMapJoiner.encode(encoded, 0);
+            SourceMapJoiner.encode(encoded, mappings[i + 2] - previousLine);
+            SourceMapJoiner.encode(encoded, mappings[i + 3] - previousSourceColumn);
+            previousColumn = mappings[i + 1];
+            previousLine = mappings[i + 2];
+            previousSourceColumn = mappings[i + 3];
+        }
+
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("version", 3);
+        file.ifPresent(name -> map.put("file", name));
+        map.put("sources", Collections.singletonList(source));
+        map.put("names", Collections.emptyList());
+        map.put("mappings", encoded.toString());
+        try {
+            return MAPPER.writeValueAsString(map);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write source map", e);
+        }
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B || c == 0xA0 || c == 0xFEFF
+                || c == 0x2028 || c == 0x2029 || c > 0x7F && Character.isSpaceChar(c);
+    }
+
+    private static boolean isLineBreak(final char c) {
+        return c == '\n' || c == '\r' || c == 0x2028 || c == 0x2029;
+    }
+
+    private static boolean isWordPart(final char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c == '$' || c == '_' || c == '\\'
+                || c > 0x7F && !isWhitespace(c);
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -3,6 +3,9 @@ package com.github.samblake.terser.plugin.minifier;
 import org.immutables.value.Value;
 
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Value.Immutable
@@ -13,7 +16,28 @@ public interface Minification {
 
     Path getTarget();
 
+    /**
+     * The code to minify, when it is already in memory rather than to be read from the source.
+     */
+    Optional<String> getCode();
+
     Optional<String> getResult();
 
     Optional<String> getSourceMap();
+
+    /**
+     * @see TerserResult#getTimings()
+     */
+    Map<String, Duration> getTimings();
+
+    /**
+     * The name of the output variant this is, absent for the main output.
+     */
+    Optional<String> getVariant();
+
+    /**
+     * Further outputs of the same source, each with its own target and options in its context. They are minified from
+     * the same parse as this one, and hold their own results once this is minified.
+     */
+    List<Minification> getVariants();
 }
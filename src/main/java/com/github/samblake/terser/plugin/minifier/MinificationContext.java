@@ -10,7 +10,12 @@ import java.util.Optional;
 @Value.Immutable
 public interface MinificationContext {
 
-    File getTerserSource();
+    /**
+     * The Terser to run, the one bundled with the plugin when absent.
+     *
+     * @see TerserSources
+     */
+    Optional<File> getTerserSource();
 
     @Value.Default
     default Optional<File> getSourceMapSource() {
@@ -28,4 +33,26 @@ public interface MinificationContext {
 
     String getOptions();
 
+    /**
+     * Files larger than this many characters are minified in segments of about this size on different workers, where
+     * they can be split, see {@link BundleSplitter}. Splitting is disabled when zero.
+     */
+    @Value.Default
+    default long getSplitSize() {
+        return 0;
+    }
+
+    /**
+     * Whether only comments and whitespace are removed, by the {@link LightweightMinifier} rather than Terser.
+     */
+    @Value.Default
+    default boolean isLightweight() {
+        return false;
+    }
+
+    @Value.Default
+    default CompilationSettings getCompilationSettings() {
+        return ImmutableCompilationSettings.builder().build();
+    }
+
 }
@@ -0,0 +1,37 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event covering the minification of a single file by a {@link TerserMinifier}.
+ */
+@Name("com.github.samblake.terser.Minification")
+@Label("Minification")
+@Category({ "Terser" })
+@Description("Minification of a single file")
+class MinificationEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Read Time")
+    @Timespan
+    long readDuration;
+
+    @Label("Minify Time")
+    @Timespan
+    long minifyDuration;
+}
@@ -0,0 +1,46 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+import static java.lang.System.lineSeparator;
+
+/**
+ * Reports the files that failed to minify, each with the error Terser (or reading the file) gave for it.
+ */
+public class MinificationException extends RuntimeException {
+    private final Map<Path, Throwable> failures;
+
+    public MinificationException(final Map<Path, Throwable> failures) {
+        super(describe(failures), failures.values().stream().findFirst().orElse(null));
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+    }
+
+    public Map<Path, Throwable> getFailures() {
+        return failures;
+    }
+
+    private static String describe(final Map<Path, Throwable> failures) {
+        final List<String> lines = new ArrayList<>();
+        lines.add(format("Failed to minify %d file%s:", failures.size(), failures.size() == 1 ? "" : "s"));
+        new TreeMap<>(failures).forEach((source, cause) -> lines.add("  " + source + ": " + rootMessage(cause)));
+        return String.join(lineSeparator(), lines);
+    }
+
+    private static String rootMessage(final Throwable throwable) {
+        Throwable cause = throwable;
+        String message = throwable.toString();
+        while (cause != null) {
+            if (cause.getMessage() != null) {
+                message = cause.getMessage();
+            }
+            cause = cause.getCause() == cause ? null : cause.getCause();
+        }
+        return message;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.samblake.terser.plugin.minifier;
+
+/**
+ * Receives the results of a {@link MinificationSession} as each file completes. It is called on the worker threads, so
+ * it must be thread safe, and a slow listener holds up its worker and, through the bound on pending files, the
+ * producers submitting files.
+ */
+public interface MinificationListener {
+    void minified(Minification minification);
+
+    /**
+     * Called for a file that failed to minify, or whose result the listener failed to take. The failure is also
+     * reported when the session is closed.
+     */
+    default void failed(final Minification minification, final Throwable failure) {
+    }
+}
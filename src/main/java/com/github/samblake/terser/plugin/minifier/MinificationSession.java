@@ -0,0 +1,302 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Minifies files as they are submitted, passing each result to a {@link MinificationListener} as soon as it is ready.
+ * At most a given number of files are pending (queued, being minified or being passed to the listener), beyond that
+ * {@link #submit(Minification)} blocks until a file completes, so a fast producer can't run ahead of the workers.
+ * <p>
+ * Files larger than the split size of their context are split into segments, each queued on its own so they are
+ * minified on different workers, see {@link SplitMinification}.
+ * <p>
+ * Closing the session waits for the submitted files and reports any failures. A session is opened by
+ * {@link ParallelTerserMinificationStrategy#open(MinificationListener, int)}.
+ */
+public class MinificationSession implements AutoCloseable {
+    private static final Submission END = new Submission(null);
+
+    private final Log log;
+    private final RecyclingPolicy recyclingPolicy;
+    private final FailurePolicy failurePolicy;
+    private final Supplier<TerserMinifier> minifiers;
+    private final HeapGrowthTrigger heapGrowth;
+    private final MinificationListener listener;
+
+    private final BlockingQueue<Submission> queue = new LinkedBlockingQueue<>();
+    private final Semaphore pending;
+    private final Set<RecyclingMinifier> active = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Throwable> failures = new ConcurrentHashMap<>();
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final List<CompletableFuture<Void>> workers = new ArrayList<>();
+    private boolean closed;
+
+    MinificationSession(final Log log, final int threads, final RecyclingPolicy recyclingPolicy,
+            final FailurePolicy failurePolicy, final Supplier<TerserMinifier> minifiers,
+            final MinificationListener listener, final int maxPending) {
+
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("Invalid maximum of pending files " + maxPending);
+        }
+
+        this.log = requireNonNull(log);
+        this.recyclingPolicy = requireNonNull(recyclingPolicy);
+        this.failurePolicy = requireNonNull(failurePolicy);
+        this.minifiers = requireNonNull(minifiers);
+        this.heapGrowth = new HeapGrowthTrigger(recyclingPolicy.getMaxHeapGrowth());
+        this.listener = requireNonNull(listener);
+        this.pending = new Semaphore(maxPending);
+
+        final Executor executor = workerExecutor(getClass().getClassLoader());
+        for (int i = 0; i < threads; i++) {
+            workers.add(CompletableFuture.runAsync(this::work, executor));
+        }
+    }
+
+    /**
+     * Queues the file for minification, blocking while the maximum number of files are pending. Once a file has
+     * failed with {@link FailurePolicy#FAIL_FAST} no more files are taken and the failure is thrown instead.
+     */
+    public void submit(final Minification minification) {
+        requireNonNull(minification);
+        if (closed) {
+            throw new IllegalStateException("Session is closed");
+        }
+
+        try {
+            pending.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to submit " + minification.getSource(), e);
+        }
+
+        if (cancelled.get()) {
+            pending.release();
+            throw new MinificationException(failures);
+        }
+
+        final Optional<SplitMinification> split = split(minification);
+        if (split.isPresent()) {
+            final List<Minification> segments = split.get().getSegments();
+            for (int i = 0; i < segments.size(); i++) {
+                queue.add(new Submission(segments.get(i), split.get(), i));
+            }
+        }
+        else {
+            queue.add(new Submission(minification));
+        }
+    }
+
+    /**
+     * Splits a large file into segments, or leaves it whole if it can't be read, so the failure is reported by the
+     * worker minifying it.
+     */
+    private Optional<SplitMinification> split(final Minification minification) {
+        try {
+            final Optional<SplitMinification> split = SplitMinification.split(minification);
+            if (split.isPresent() && log.isDebugEnabled()) {
+                log.debug(format("Minifying %s in %d segments", minification.getSource(), split.get().size()));
+            }
+            return split;
+        }
+        catch (RuntimeException e) {
+            log.debug("Not splitting " + minification.getSource(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Waits for the submitted files to be minified and passed to the listener, then reports the files that failed
+     * together by a {@link MinificationException}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        workers.forEach(worker -> queue.add(END));
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+
+        if (!failures.isEmpty()) {
+            throw new MinificationException(failures);
+        }
+    }
+
+    /**
+     * Each worker creates a terser minifier and minifies files until the session is closed.
+     */
+    private void work() {
+        try (RecyclingMinifier minifier =
+                new RecyclingMinifier(log, recyclingPolicy, minifiers.get(), heapGrowth)) {
+            active.add(minifier);
+            try {
+                Submission submission;
+                while ((submission = queue.take()) != END) {
+                    // A split file is pending until its last segment is done
+                    boolean done = true;
+                    try {
+                        // Once cancelled the remaining files are only taken off the queue to unblock producers
+                        if (submission.split != null) {
+                            done = minifySegment(minifier, submission);
+                        }
+                        else if (!cancelled.get()) {
+                            minify(minifier, submission.minification, submission.queued);
+                        }
+                    }
+                    finally {
+                        if (done) {
+                            pending.release();
+                        }
+                    }
+                }
+            }
+            finally {
+                active.remove(minifier);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel(null);
+        }
+    }
+
+    private void minify(final RecyclingMinifier minifier, final Minification minification, final long queued) {
+        recordQueueWait(minification, queued);
+        if (log.isDebugEnabled()) {
+            String name = Thread.currentThread().getName();
+            log.debug(format("[%s] minifying %s", name, minification.getSource()));
+        }
+
+        try {
+            listener.minified(minifier.execute(minification));
+        }
+        catch (RuntimeException e) {
+            failed(minifier, minification, e);
+        }
+    }
+
+    /**
+     * Minifies a segment of a split file, and once all its segments are done passes the joined result to the
+     * listener. Should a segment fail, for example because the file was split where it can't be, the whole file is
+     * minified instead. Returns whether the file is done.
+     */
+    private boolean minifySegment(final RecyclingMinifier minifier, final Submission submission) {
+        final SplitMinification split = submission.split;
+        boolean last;
+        if (cancelled.get()) {
+            last = split.fail();
+        }
+        else {
+            recordQueueWait(submission.minification, submission.queued);
+            try {
+                last = split.complete(submission.segment, minifier.execute(submission.minification));
+            }
+            catch (RuntimeException e) {
+                log.debug(format("Segment %d of %s failed", submission.segment, submission.minification.getSource()),
+                        e);
+                last = split.fail();
+            }
+        }
+
+        if (last && !cancelled.get()) {
+            if (split.isFailed()) {
+                minify(minifier, split.getMinification(), submission.queued);
+            }
+            else {
+                try {
+                    listener.minified(split.join());
+                }
+                catch (RuntimeException e) {
+                    failed(minifier, split.getMinification(), e);
+                }
+            }
+        }
+        return last;
+    }
+
+    private void failed(final RecyclingMinifier minifier, final Minification minification, final RuntimeException e) {
+        if (cancelled.get()) {
+            // Cancelled because another file failed, which is the one reported
+            return;
+        }
+        failures.put(minification.getSource(), e);
+        listener.failed(minification, e);
+        if (failurePolicy == FailurePolicy.FAIL_FAST) {
+            cancel(minifier);
+        }
+    }
+
+    /**
+     * Stops the other workers, interrupting the minifications they have in progress.
+     */
+    private void cancel(final RecyclingMinifier failed) {
+        if (cancelled.compareAndSet(false, true)) {
+            active.stream()
+                    .filter(minifier -> minifier != failed)
+                    .forEach(RecyclingMinifier::cancel);
+        }
+    }
+
+    private static void recordQueueWait(final Minification minification, final long queued) {
+        if (!FlightRecorderEvents.isAvailable()) {
+            return;
+        }
+
+        final QueueWaitEvent event = new QueueWaitEvent();
+        if (event.shouldCommit()) {
+            event.file = minification.getSource().toString();
+            event.waitDuration = System.nanoTime() - queued;
+            event.commit();
+        }
+    }
+
+    /**
+     * Runs each worker on its own daemon thread, as they block waiting for files.
+     */
+    private static Executor workerExecutor(final ClassLoader classLoader) {
+        return task -> {
+            final Thread thread = new Thread(task, "terser-worker");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            thread.start();
+        };
+    }
+
+    private static class Submission {
+        private final Minification minification;
+        private final SplitMinification split;
+        private final int segment;
+        private final long queued = System.nanoTime();
+
+        Submission(final Minification minification) {
+            this(minification, null, 0);
+        }
+
+        Submission(final Minification minification, final SplitMinification split, final int segment) {
+            this.minification = minification;
+            this.split = split;
+            this.segment = segment;
+        }
+    }
+}
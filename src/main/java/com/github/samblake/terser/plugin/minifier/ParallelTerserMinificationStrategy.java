@@ -2,12 +2,10 @@ package com.github.samblake.terser.plugin.minifier;
 
 import org.apache.maven.plugin.logging.Log;
 
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.lang.Runtime.getRuntime;
@@ -17,41 +15,83 @@ import static java.util.Objects.requireNonNull;
 public class ParallelTerserMinificationStrategy implements TerserMinificationStrategy {
     private final Log log;
     private final int threads;
+    private final RecyclingPolicy recyclingPolicy;
+    private final FailurePolicy failurePolicy;
+    private final Queue<CompletableFuture<TerserMinifier>> prepared = new ConcurrentLinkedQueue<>();
 
     public ParallelTerserMinificationStrategy(final Log log, final int threads) {
+        this(log, threads, RecyclingPolicy.never());
+    }
+
+    public ParallelTerserMinificationStrategy(final Log log, final int threads, final RecyclingPolicy recyclingPolicy) {
+        this(log, threads, recyclingPolicy, FailurePolicy.FAIL_FAST);
+    }
+
+    public ParallelTerserMinificationStrategy(final Log log, final int threads, final RecyclingPolicy recyclingPolicy,
+            final FailurePolicy failurePolicy) {
+
         this.log = requireNonNull(log);
         this.threads = getAvailableThreads(threads);
+        this.recyclingPolicy = requireNonNull(recyclingPolicy);
+        this.failurePolicy = requireNonNull(failurePolicy);
     }
 
+    /**
+     * Minifies the files on all workers. Files that fail are reported together by a {@link MinificationException}
+     * once the workers have stopped; with {@link FailurePolicy#FAIL_FAST} the first failure stops them right away.
+     */
     @Override
     public Stream<Minification> execute(final Set<Minification> minifications) {
-        final ConcurrentLinkedQueue<Minification> queue = new ConcurrentLinkedQueue<>(minifications);
-
-        // Each thread's task is to create a terser minifier and perform as much minification as possible
-        final Supplier<Collection<Minification>> task = () -> {
-            Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
-            try (TerserMinifier minifier = new TerserMinifier()) {
-                final Set<Minification> minificationResults = new HashSet<>();
-                Minification currentMinification;
-                while ((currentMinification = queue.poll()) != null) {
-                    if (log.isDebugEnabled()) {
-                        String name = Thread.currentThread().getName();
-                        log.debug(format("[%s] minifying %s", name, currentMinification.getSource()));
-                    }
-                    minificationResults.add(minifier.execute(currentMinification));
-                }
-                return minificationResults;
-            }
-        };
-
-        final Collection<CompletableFuture<Collection<Minification>>> futures = new HashSet<>();
+        final Queue<Minification> results = new ConcurrentLinkedQueue<>();
+        try (MinificationSession session = open(results::add, Math.max(1, minifications.size()))) {
+            minifications.forEach(session::submit);
+        }
+        return results.stream();
+    }
+
+    /**
+     * Opens a session minifying files as they are submitted, on all workers, passing the results to the listener as
+     * they complete. Submitting blocks while {@code maxPending} files are waiting or in progress.
+     */
+    public MinificationSession open(final MinificationListener listener, final int maxPending) {
+        return new MinificationSession(log, threads, recyclingPolicy, failurePolicy, this::takePrepared, listener,
+                maxPending);
+    }
+
+    /**
+     * Starts creating a minifier for each worker in the background, so Terser is loaded while the files to minify
+     * are still being discovered. Workers pick up the prepared minifiers when {@link #execute(Set)} is called.
+     */
+    public void warmUp(final MinificationContext context) {
+        final ClassLoader classLoader = getClass().getClassLoader();
         for (int i = 0; i < threads; i++) {
-            futures.add(CompletableFuture.supplyAsync(task));
+            prepared.add(CompletableFuture.supplyAsync(() -> new TerserMinifier().prepare(context),
+                    RecyclingMinifier.warmUpExecutor(classLoader)));
         }
+    }
 
-        return futures.stream()
-                .map(CompletableFuture::join)
-                .flatMap(Collection::stream);
+    /**
+     * Discards the minifiers started by {@link #warmUp(MinificationContext)} that no worker has taken. Those still
+     * loading Terser are closed as soon as they are ready.
+     */
+    public void cancelWarmUp() {
+        CompletableFuture<TerserMinifier> minifier;
+        while ((minifier = prepared.poll()) != null) {
+            minifier.thenAccept(TerserMinifier::close);
+        }
+    }
+
+    /**
+     * Takes a prepared minifier, or creates a new one if there is none or its preparation failed, in which case the
+     * failure is reported by the first minification instead.
+     */
+    private TerserMinifier takePrepared() {
+        final CompletableFuture<TerserMinifier> minifier = prepared.poll();
+        if (minifier == null) {
+            return new TerserMinifier();
+        }
+        final TerserMinifier result = minifier.handle((ready, e) -> ready).join();
+        return result == null ? new TerserMinifier() : result;
     }
 
     private int getAvailableThreads(final int threads) {
@@ -69,4 +109,4 @@ public class ParallelTerserMinificationStrategy implements TerserMinificationStr
 
         return threads;
     }
-}
\ No newline at end of file
+}
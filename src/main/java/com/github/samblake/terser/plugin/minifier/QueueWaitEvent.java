@@ -0,0 +1,25 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event recording how long a file waited in the queue of a
+ * {@link ParallelTerserMinificationStrategy} before a worker picked it up.
+ */
+@Name("com.github.samblake.terser.QueueWait")
+@Label("Queue Wait")
+@Category({ "Terser" })
+@Description("Time a file waited before a worker started minifying it")
+class QueueWaitEvent extends Event {
+    @Label("File")
+    String file;
+
+    @Label("Wait Time")
+    @Timespan
+    long waitDuration;
+}
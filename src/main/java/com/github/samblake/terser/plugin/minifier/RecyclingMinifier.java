@@ -0,0 +1,132 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link TerserMinifier} for a single worker that is replaced according to a {@link RecyclingPolicy}. The
+ * replacement is warmed up on a background thread once the policy gets close to a limit, so the worker switches over
+ * without waiting for Terser to load. The files and input bytes are counted per worker, while the heap growth is
+ * shared by the workers of a session, see {@link HeapGrowthTrigger}.
+ */
+class RecyclingMinifier implements AutoCloseable {
+    private final Log log;
+    private final RecyclingPolicy policy;
+    private final HeapGrowthTrigger heapGrowth;
+    private final ClassLoader classLoader;
+
+    private volatile TerserMinifier minifier;
+    private CompletableFuture<TerserMinifier> replacement;
+
+    private int files;
+    private long inputBytes;
+
+    RecyclingMinifier(final Log log, final RecyclingPolicy policy) {
+        this(log, policy, new TerserMinifier(), new HeapGrowthTrigger(policy.getMaxHeapGrowth()));
+    }
+
+    /**
+     * Starts with the given minifier, which may already have been prepared, sharing the heap growth trigger with the
+     * other workers.
+     */
+    RecyclingMinifier(final Log log, final RecyclingPolicy policy, final TerserMinifier minifier,
+            final HeapGrowthTrigger heapGrowth) {
+
+        this.log = requireNonNull(log);
+        this.policy = requireNonNull(policy);
+        this.minifier = requireNonNull(minifier);
+        this.heapGrowth = requireNonNull(heapGrowth);
+        this.classLoader = getClass().getClassLoader();
+    }
+
+    Minification execute(final Minification minification) {
+        if (policy.isEnabled()) {
+            if (policy.shouldRecycle(files, inputBytes) || heapGrowth.claimRecycling()) {
+                recycle();
+            }
+            else if (replacement == null
+                    && (policy.shouldPrepare(files, inputBytes) || heapGrowth.claimPreparation())) {
+                replacement = prepare(minification.getContext());
+            }
+        }
+
+        final Minification result = minifier.execute(minification);
+        files++;
+        inputBytes += minification.getCode()
+                .map(code -> (long)code.getBytes(minification.getContext().getCharset()).length)
+                .orElseGet(() -> minification.getSource().toFile().length());
+        return result;
+    }
+
+    private void recycle() {
+        if (log.isDebugEnabled()) {
+            log.debug(format("[%s] recycling minifier after %d files, %d input bytes and %d bytes of heap growth",
+                    Thread.currentThread().getName(), files, inputBytes, heapGrowth.getGrowth()));
+        }
+
+        final TerserMinifier next = takeReplacement();
+        minifier.close();
+        minifier = next;
+
+        files = 0;
+        inputBytes = 0;
+    }
+
+    /**
+     * Takes the replacement warmed up in the background, or creates a new minifier if there is none or its warm up
+     * failed. A failure that isn't passing is then reported by the minification itself.
+     */
+    private TerserMinifier takeReplacement() {
+        final CompletableFuture<TerserMinifier> prepared = replacement;
+        replacement = null;
+        if (prepared == null) {
+            return new TerserMinifier();
+        }
+
+        try {
+            return prepared.join();
+        }
+        catch (CompletionException e) {
+            log.debug(format("[%s] warming up the replacement minifier failed, creating a new one",
+                    Thread.currentThread().getName()), e.getCause());
+            return new TerserMinifier();
+        }
+    }
+
+    CompletableFuture<TerserMinifier> prepare(final MinificationContext context) {
+        return CompletableFuture.supplyAsync(() -> new TerserMinifier().prepare(context), warmUpExecutor(classLoader));
+    }
+
+    /**
+     * Runs each task on a new daemon thread, so a warm up that is no longer needed never holds up the build.
+     */
+    static Executor warmUpExecutor(final ClassLoader classLoader) {
+        return task -> {
+            final Thread thread = new Thread(task, "terser-warm-up");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            thread.start();
+        };
+    }
+
+    /**
+     * Cancels the minification in progress, if any, from another thread.
+     */
+    void cancel() {
+        minifier.cancel();
+    }
+
+    @Override
+    public void close() {
+        minifier.close();
+        if (replacement != null) {
+            replacement.thenAccept(TerserMinifier::close);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.immutables.value.Value;
+
+/**
+ * Determines when a worker replaces its {@link TerserMinifier} with a fresh one, bounding how much memory a
+ * long-lived context can accumulate. A limit of zero disables that criterion.
+ */
+@Value.Immutable
+public interface RecyclingPolicy {
+
+    /**
+     * Fraction of a limit at which a replacement minifier starts warming up in the background.
+     */
+    double PREPARE_RATIO = 0.8;
+
+    @Value.Default
+    default int getMaxFiles() {
+        return 0;
+    }
+
+    /**
+     * Maximum number of bytes read from the files minified by a worker, counting in-memory code in the bytes of its
+     * charset.
+     */
+    @Value.Default
+    default long getMaxInputBytes() {
+        return 0;
+    }
+
+    /**
+     * Maximum growth of the retained heap of the whole JVM, measured after the most recent garbage collection. The
+     * growth can't be attributed to a worker, so each time it is reached one worker replaces its minifier, see
+     * {@link HeapGrowthTrigger}.
+     */
+    @Value.Default
+    default long getMaxHeapGrowth() {
+        return 0;
+    }
+
+    default boolean isEnabled() {
+        return getMaxFiles() > 0 || getMaxInputBytes() > 0 || getMaxHeapGrowth() > 0;
+    }
+
+    /**
+     * Whether a worker that minified the given files is close to its file or input limit. The heap growth is checked
+     * by a {@link HeapGrowthTrigger} shared by the workers.
+     */
+    default boolean shouldPrepare(final int files, final long inputBytes) {
+        return reaches(files, getMaxFiles(), PREPARE_RATIO)
+                || reaches(inputBytes, getMaxInputBytes(), PREPARE_RATIO);
+    }
+
+    default boolean shouldRecycle(final int files, final long inputBytes) {
+        return reaches(files, getMaxFiles(), 1)
+                || reaches(inputBytes, getMaxInputBytes(), 1);
+    }
+
+    static boolean reaches(final long value, final long limit, final double ratio) {
+        return limit > 0 && value >= limit * ratio;
+    }
+
+    static RecyclingPolicy never() {
+        return ImmutableRecyclingPolicy.builder().build();
+    }
+
+}
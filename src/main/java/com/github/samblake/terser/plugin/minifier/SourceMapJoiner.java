@@ -0,0 +1,215 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins the source maps of code generated in parts, each starting on a new line, into one source map for the joined
+ * code. Sources and names are merged by value, so parts generated from the same source map back to a single source.
+ */
+final class SourceMapJoiner {
+    private static final String BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String INLINE = "inline";
+    private static final String SOURCE_MAPPING_URL = "\n//# sourceMappingURL=";
+    private static final String DATA_URL = "data:application/json;charset=utf-8;base64,";
+
+    private final List<String> sources = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<List<int[]>> lines = new ArrayList<>();
+    private String file;
+    private String sourceRoot;
+    private boolean sourcesContent;
+
+    /**
+     * Adds the source map of code that starts at the given line of the joined code, which must be past the code of
+     * the source maps added before.
+     */
+    void add(final String sourceMap, final int line) {
+        final Map<String, Object> map = read(sourceMap);
+        if (file == null) {
+            file = (String)map.get("file");
+        }
+        if (sourceRoot == null) {
+            sourceRoot = (String)map.get("sourceRoot");
+        }
+        sourcesContent |= map.get("sourcesContent") != null;
+
+        final int[] sourceIndexes = indexes(sources, (List<String>)map.get("sources"));
+        final int[] nameIndexes = indexes(names, (List<String>)map.get("names"));
+
+        while (lines.size() < line) {
+            lines.add(Collections.emptyList());
+        }
+
+        // Only the generated column starts again on each line, the other fields are relative across lines
+        final int[] state = new int[5];
+        for (String mappingLine : ((String)map.get("mappings")).split(";", -1)) {
+            final List<int[]> mappings = new ArrayList<>();
+            state[0] = 0;
+            for (String segment : mappingLine.split(",")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                final int[] fields = decode(segment);
+                for (int i = 0; i < fields.length; i++) {
+                    state[i] += fields[i];
+                }
+                final int[] mapping = new int[fields.length];
+                mapping[0] = state[0];
+                if (fields.length >= 4) {
+                    mapping[1] = sourceIndexes[state[1]];
+                    mapping[2] = state[2];
+                    mapping[3] = state[3];
+                }
+                if (fields.length == 5) {
+                    mapping[4] = nameIndexes[state[4]];
+                }
+                mappings.add(mapping);
+            }
+            lines.add(mappings);
+        }
+    }
+
+    /**
+     * Returns the joined source map, with the given original code as the content of its source when any of the source
+     * maps included their sources.
+     */
+    String join(final String code) {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        map.put("version", 3);
+        if (file != null) {
+            map.put("file", file);
+        }
+        if (sourceRoot != null) {
+            map.put("sourceRoot", sourceRoot);
+        }
+        map.put("sources", sources);
+        if (sourcesContent) {
+            map.put("sourcesContent", Collections.nCopies(sources.size(), code));
+        }
+        map.put("names", names);
+        map.put("mappings", encode());
+
+        try {
+            return MAPPER.writeValueAsString(map);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to write source map", e);
+        }
+    }
+
+    /**
+     * The comment Terser adds to point at the source map for the {@code sourceMap.url} option, with the source map
+     * itself as a data URL when the URL is {@code inline}.
+     */
+    static String sourceMappingUrl(final String url, final String sourceMap) {
+        return SOURCE_MAPPING_URL + (INLINE.equals(url)
+                ? DATA_URL + Base64.getEncoder().encodeToString(sourceMap.getBytes(StandardCharsets.UTF_8))
+                : url);
+    }
+
+    private String encode() {
+        final StringBuilder builder = new StringBuilder();
+        final int[] state = new int[5];
+        for (int line = 0; line < lines.size(); line++) {
+            if (line > 0) {
+                builder.append(';');
+            }
+            state[0] = 0;
+            final List<int[]> mappings = lines.get(line);
+            for (int i = 0; i < mappings.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                final int[] mapping = mappings.get(i);
+                for (int field = 0; field < mapping.length; field++) {
+                    encode(builder, mapping[field] - state[field]);
+                    state[field] = mapping[field];
+                }
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the index of each value in the merged values, adding those not there yet.
+     */
+    private static int[] indexes(final List<String> merged, final List<String> values) {
+        if (values == null) {
+            return new int[0];
+        }
+        final int[] indexes = new int[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            int index = merged.indexOf(values.get(i));
+            if (index < 0) {
+                index = merged.size();
+                merged.add(values.get(i));
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    /**
+     * Decodes the Base64 VLQ values of a mapping.
+     */
+    static int[] decode(final String segment) {
+        final int[] values = new int[5];
+        int count = 0;
+        int value = 0;
+        int shift = 0;
+        for (int i = 0; i < segment.length(); i++) {
+            final int digit = BASE64.indexOf(segment.charAt(i));
+            if (digit < 0 || count == values.length) {
+                throw new IllegalArgumentException("Invalid source map mapping " + segment);
+            }
+            value += (digit & 31) << shift;
+            if ((digit & 32) != 0) {
+                shift += 5;
+            }
+            else {
+                values[count++] = (value & 1) == 1 ? -(value >>> 1) : value >>> 1;
+                value = 0;
+                shift = 0;
+            }
+        }
+        if (count != 1 && count != 4 && count != 5) {
+            throw new IllegalArgumentException("Invalid source map mapping " + segment);
+        }
+
+        final int[] fields = new int[count];
+        System.arraycopy(values, 0, fields, 0, count);
+        return fields;
+    }
+
+    static void encode(final StringBuilder builder, final int value) {
+        int vlq = value < 0 ? (-value << 1) | 1 : value << 1;
+        do {
+            int digit = vlq & 31;
+            vlq >>>= 5;
+            if (vlq > 0) {
+                digit |= 32;
+            }
+            builder.append(BASE64.charAt(digit));
+        }
+        while (vlq > 0);
+    }
+
+    private static Map<String, Object> read(final String sourceMap) {
+        try {
+            return MAPPER.readValue(sourceMap, LinkedHashMap.class);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid source map", e);
+        }
+    }
+}
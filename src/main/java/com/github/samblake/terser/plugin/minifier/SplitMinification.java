@@ -0,0 +1,204 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A file minified in segments on different workers, which are joined back together, along with their source maps,
+ * once all are done. See {@link BundleSplitter} for where files are split.
+ * <p>
+ * Segments are minified as separate scripts, so files are only split when the options keep top-level names as they
+ * are: not with {@code toplevel}, {@code module}, {@code nameCache}, {@code enclose} or {@code wrap}, nor with
+ * property mangling. Nor are they split with an input source map, which maps positions in the whole file.
+ */
+class SplitMinification {
+    private final Minification minification;
+    private final String code;
+    private final Map<String, Object> options;
+    private final List<BundleSplitter.Segment> segments;
+    private final Minification[] results;
+    private final AtomicInteger remaining;
+    private volatile boolean failed;
+
+    private SplitMinification(final Minification minification, final String code, final Map<String, Object> options,
+            final List<BundleSplitter.Segment> segments) {
+
+        this.minification = minification;
+        this.code = code;
+        this.options = options;
+        this.segments = segments;
+        this.results = new Minification[segments.size()];
+        this.remaining = new AtomicInteger(segments.size());
+    }
+
+    /**
+     * Splits the minification when splitting is enabled, its file has more characters than the split size and can be
+     * split. A file has no more characters than bytes, so one that isn't larger than the split size in bytes is left
+     * as it is without being read.
+     */
+    static Optional<SplitMinification> split(final Minification minification) {
+        final MinificationContext context = minification.getContext();
+        final long splitSize = context.getSplitSize();
+        if (splitSize <= 0 || !minification.getVariants().isEmpty() || minification.getCode().isPresent()
+                || minification.getSource().toFile().length() <= splitSize) {
+            return Optional.empty();
+        }
+
+        final Map<String, Object> options = TerserEngine.parseOptions(context.getOptions());
+        if (!isSplittable(options)) {
+            context.getLog().debug("Not splitting " + minification.getSource() + " as its options rely on the whole "
+                    + "file");
+            return Optional.empty();
+        }
+
+        final String code;
+        try {
+            code = TerserMinifier.read(minification);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (code.length() <= splitSize) {
+            return Optional.empty();
+        }
+
+        final List<BundleSplitter.Segment> segments = BundleSplitter.split(code, splitSize);
+        return segments.size() < 2
+                ? Optional.empty()
+                : Optional.of(new SplitMinification(minification, code, options, segments));
+    }
+
+    private static boolean isSplittable(final Map<String, Object> options) {
+        return !isSet(options.get("toplevel"))
+                && !isSet(options.get("module"))
+                && !options.containsKey("nameCache")
+                && !isSet(options.get("enclose"))
+                && !isSet(options.get("wrap"))
+                && !isSet(getNested(options, "compress", "toplevel"))
+                && !isSet(getNested(options, "mangle", "toplevel"))
+                && !isSet(getNested(options, "mangle", "properties"))
+                && !isSet(getNested(options, "sourceMap", "content"))
+                && !isSet(getNested(options, "format", "ast"));
+    }
+
+    Minification getMinification() {
+        return minification;
+    }
+
+    /**
+     * The minifications of the segments, in order. The source map URL, added once the segments are joined, and the
+     * preamble of any but the first segment are left out of their options.
+     */
+    List<Minification> getSegments() {
+        final List<Minification> minifications = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            final Map<String, Object> segmentOptions = new HashMap<>(options);
+            removeNested(segmentOptions, "sourceMap", "url");
+            if (i > 0) {
+                removeNested(segmentOptions, "format", "preamble");
+            }
+
+            minifications.add(ImmutableMinification.copyOf(minification)
+                    .withCode(segments.get(i).getCode(code))
+                    .withContext(ImmutableMinificationContext.copyOf(minification.getContext())
+                            .withOptions(TerserEngine.formatOptions(segmentOptions))));
+        }
+        return minifications;
+    }
+
+    /**
+     * Records the result of a segment, returning whether it was the last segment to finish.
+     */
+    boolean complete(final int segment, final Minification result) {
+        results[segment] = result;
+        return remaining.decrementAndGet() == 0;
+    }
+
+    /**
+     * Records that a segment failed or was skipped, returning whether it was the last segment to finish.
+     */
+    boolean fail() {
+        failed = true;
+        return remaining.decrementAndGet() == 0;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Joins the minified segments, each on a new line and ended by a semicolon, and their source maps.
+     */
+    Minification join() {
+        final StringBuilder joined = new StringBuilder();
+        final Map<String, Duration> timings = new LinkedHashMap<>();
+        final SourceMapJoiner sourceMaps = new SourceMapJoiner();
+        int line = 0;
+        boolean sourceMap = false;
+
+        for (int i = 0; i < results.length; i++) {
+            final Minification result = results[i];
+            if (i > 0) {
+                joined.append('\n');
+                line++;
+            }
+
+            final String segmentCode = result.getResult().orElse("");
+            if (result.getSourceMap().isPresent()) {
+                sourceMaps.add(result.getSourceMap().get(), line);
+                sourceMap = true;
+            }
+            result.getTimings().forEach((phase, duration) -> timings.merge(phase, duration, Duration::plus));
+
+            joined.append(segmentCode);
+            line += segmentCode.chars().filter(c -> c == '\n').count();
+            if (i < results.length - 1 && !segmentCode.endsWith(";")) {
+                // On a new line, in case the segment ends with a comment
+                joined.append("\n;");
+                line++;
+            }
+        }
+
+        final Optional<String> map = sourceMap ? Optional.of(sourceMaps.join(code)) : Optional.empty();
+        final Object url = getNested(options, "sourceMap", "url");
+        if (map.isPresent() && url instanceof String) {
+            joined.append(SourceMapJoiner.sourceMappingUrl((String)url, map.get()));
+        }
+
+        return ImmutableMinification.copyOf(minification)
+                .withResult(joined.toString())
+                .withSourceMap(map)
+                .withTimings(timings);
+    }
+
+    int size() {
+        return segments.size();
+    }
+
+    private static boolean isSet(final Object value) {
+        return value != null && !Boolean.FALSE.equals(value);
+    }
+
+    private static Object getNested(final Map<String, Object> options, final String key, final String nested) {
+        final Object value = options.get(key);
+        return value instanceof Map ? ((Map<String, Object>)value).get(nested) : null;
+    }
+
+    private static void removeNested(final Map<String, Object> options, final String key, final String nested) {
+        final Object value = options.get(key);
+        if (value instanceof Map) {
+            final Map<String, Object> copy = new HashMap<>((Map<String, Object>)value);
+            copy.remove(nested);
+            options.put(key, copy);
+        }
+    }
+}
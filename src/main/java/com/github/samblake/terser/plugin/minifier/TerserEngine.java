@@ -0,0 +1,313 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.PolyglotAccess;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.IntStream;
+
+import static com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES;
+import static com.oracle.truffle.js.runtime.JSContextOptions.UNHANDLED_REJECTIONS_NAME;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A script context with Terser loaded, minifying code held in memory. It has no dependency on Maven or on files, so
+ * it can be embedded directly. An engine is not thread safe, it must be used by one thread at a time.
+ */
+public class TerserEngine implements AutoCloseable {
+    private static final String CODE_VARIABLE = "code";
+    private static final String OPTIONS_VARIABLE = "options";
+    private static final String TERSER_EXECUTE = "Terser.minify(%s, JSON.parse(%s))";
+    private static final String TERSER_EXECUTE_VARIANTS = "(async function (code, variants) {"
+            + " const first = variants[0];"
+            + " const parse = { compress: false, mangle: false, format: { ast: true, code: false } };"
+            + " if (first.parse !== undefined) parse.parse = first.parse;"
+            + " if (first.module !== undefined) parse.module = first.module;"
+            + " const parsed = (await Terser.minify(code, parse)).ast;"
+            + " const results = {};"
+            + " for (const [index, options] of variants.entries()) {"
+            + "  const source = options.sourceMap"
+            + "   && (options.sourceMap.includeSources || options.sourceMap.content === 'inline');"
+            + "  results[index] = await Terser.minify(source ? code : parsed.clone(true), options);"
+            + " }"
+            + " return results;"
+            + "})(%s, JSON.parse(%s))";
+    private static final String COUNT_GLOBALS = "Object.getOwnPropertyNames(globalThis).length";
+    private static final String COMPILATION_PROBE_OPTION = "engine.BackgroundCompilation";
+    private static final String WARM_UP_SOURCE = "function warmUp(items, factor) {"
+            + " var total = 0; for (var i = 0; i < items.length; i++) { total += items[i] * factor; }"
+            + " return items.map(function (item) { return { value: item, share: item / total }; })"
+            + ".filter(function (entry) { return entry.share > 0.1; }); }"
+            + " var result = warmUp([1, 2, 3, 4, 5], 2);";
+
+    private static final ObjectMapper OPTIONS_MAPPER = new ObjectMapper().configure(ALLOW_UNQUOTED_FIELD_NAMES, true);
+
+    /**
+     * Terser only needs the ECMAScript built-ins, so the GraalVM specific globals, script loading and printing, and the
+     * shared memory intrinsics are left out of every context. Legacy RegExp statics aren't updated on each match.
+     */
+    private static final Map<String, String> LEAN_OPTIONS = leanOptions();
+
+    private static volatile Boolean optimizingRuntime;
+
+    private final Context context;
+
+    /**
+     * Creates an engine running the Terser bundled with the plugin.
+     */
+    public TerserEngine() {
+        this(TerserSources.bundledTerser(), Optional.of(TerserSources.bundledSourceMap()));
+    }
+
+    public TerserEngine(final Source terserSource, final Optional<Source> sourceMapSource) {
+        this(terserSource, sourceMapSource, ImmutableCompilationSettings.builder().build());
+    }
+
+    public TerserEngine(final Source terserSource, final Optional<Source> sourceMapSource,
+            final CompilationSettings compilationSettings) {
+
+        requireNonNull(terserSource);
+        final EngineCreationEvent event = FlightRecorderEvents.isAvailable() ? new EngineCreationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+
+        this.context = createContext(compilationSettings);
+        try {
+            sourceMapSource.ifPresent(this::evaluate);
+            evaluate(terserSource);
+            warmUp(compilationSettings.getWarmUpIterations());
+        }
+        catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+
+        if (event != null) {
+            event.warmUpIterations = compilationSettings.getWarmUpIterations();
+            event.commit();
+        }
+    }
+
+    private void evaluate(final Source source) {
+        if (!FlightRecorderEvents.isAvailable()) {
+            context.eval(source);
+            return;
+        }
+
+        final TerserEvaluationEvent event = new TerserEvaluationEvent();
+        event.begin();
+        context.eval(source);
+        if (event.shouldCommit()) {
+            event.source = source.getName();
+            event.commit();
+        }
+    }
+
+    /**
+     * Minifies the given code with options in (relaxed) JSON form, as accepted by {@code Terser.minify}.
+     */
+    public TerserResult minify(final String code, final String options) {
+        return minify(code, parseOptions(options));
+    }
+
+    public TerserResult minify(final String code, final Map<String, Object> options) {
+        return toResult(execute(TERSER_EXECUTE, code, options));
+    }
+
+    /**
+     * Minifies the code once with each of the options, parsing it only once: the code is parsed with the parse options
+     * (and {@code module}) of the first, and each minification starts from a copy of the parsed code. The results are
+     * in the order of the options.
+     * <p>
+     * Terser can't include the original source in a source map, or read an inline source map, from parsed code, so
+     * options asking for either parse the code again.
+     */
+    public List<TerserResult> minify(final String code, final List<Map<String, Object>> options) {
+        if (options.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // Keyed by the index of the options, as script arrays don't convert to lists
+        final Map<String, ?> results = execute(TERSER_EXECUTE_VARIANTS, code, options);
+        return IntStream.range(0, options.size())
+                .mapToObj(index -> toResult((Map<String, ?>)results.get(Integer.toString(index))))
+                .collect(toList());
+    }
+
+    private Map<String, ?> execute(final String script, final String code, final Object options) {
+        final Value bindings = context.getBindings("js");
+        try {
+            // Passed as JSON so Terser reads plain script objects rather than calling back into the host
+            bindings.putMember(CODE_VARIABLE, code);
+            bindings.putMember(OPTIONS_VARIABLE, OPTIONS_MAPPER.writeValueAsString(options));
+
+            return waitForResult(context.eval("js", format(script, CODE_VARIABLE, OPTIONS_VARIABLE)));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while minifying", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("Minification failed: " + e.getCause(), e.getCause());
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid Terser options: " + options, e);
+        }
+        finally {
+            // Don't keep the last source and options reachable from the global scope
+            bindings.removeMember(CODE_VARIABLE);
+            bindings.removeMember(OPTIONS_VARIABLE);
+        }
+    }
+
+    private static TerserResult toResult(final Map<String, ?> results) {
+        try {
+            return ImmutableTerserResult.builder()
+                    .code((String)results.get("code"))
+                    .sourceMap(Optional.ofNullable((String)results.get("map")))
+                    .timings(toTimings((Map<String, ?>)results.get("timings")))
+                    .build();
+        }
+        catch (RuntimeException e) {
+            throw new IllegalStateException("Invalid result: " + results, e);
+        }
+    }
+
+    /**
+     * Terser reports the time of each phase in (fractional) seconds, measured to the millisecond.
+     */
+    private static Map<String, Duration> toTimings(final Map<String, ?> seconds) {
+        final Map<String, Duration> timings = new LinkedHashMap<>();
+        if (seconds != null) {
+            seconds.forEach((phase, value) ->
+                    timings.put(phase, Duration.ofMillis(Math.round(((Number)value).doubleValue() * 1000))));
+        }
+        return timings;
+    }
+
+    /**
+     * Returns the number of properties of the global object, which stays the same from one minification to the next
+     * unless they leak values into the global scope.
+     */
+    int countGlobals() {
+        return context.eval("js", COUNT_GLOBALS).asInt();
+    }
+
+    /**
+     * Minifies a small synthetic input a number of times so the hot Terser paths are compiled before real work.
+     */
+    private void warmUp(final int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            minify(WARM_UP_SOURCE, new HashMap<>());
+        }
+    }
+
+    public static Map<String, Object> parseOptions(final String options) {
+        try {
+            return OPTIONS_MAPPER.readValue(options, HashMap.class);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid Terser options: " + options, e);
+        }
+    }
+
+    /**
+     * Formats options as JSON, as accepted by {@link #minify(String, String)}.
+     */
+    public static String formatOptions(final Map<String, Object> options) {
+        try {
+            return OPTIONS_MAPPER.writeValueAsString(options);
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid Terser options: " + options, e);
+        }
+    }
+
+    static Context createContext(final CompilationSettings compilationSettings) {
+        // The interpreter only warning is replaced by our own report, see isOptimizingRuntime
+        final Engine.Builder builder = Engine.newBuilder()
+                .allowExperimentalOptions(true)
+                .option("engine.WarnInterpreterOnly", "false");
+
+        if (isOptimizingRuntime()) {
+            compilationSettings.getEngineOptions().forEach(builder::option);
+        }
+
+        // No host or polyglot access, the only calls back into Java are the proxies resolving the result
+        return Context.newBuilder("js")
+                .engine(builder.build())
+                .allowExperimentalOptions(true)
+                .allowPolyglotAccess(PolyglotAccess.NONE)
+                .allowHostAccess(HostAccess.NONE)
+                .options(LEAN_OPTIONS)
+                .option(UNHANDLED_REJECTIONS_NAME, "throw")
+                .build();
+    }
+
+    private static Map<String, String> leanOptions() {
+        final Map<String, String> options = new HashMap<>();
+        options.put("js.graal-builtin", "false");
+        options.put("js.polyglot-builtin", "false");
+        options.put("js.java-package-globals", "false");
+        options.put("js.load", "false");
+        options.put("js.print", "false");
+        options.put("js.shared-array-buffer", "false");
+        options.put("js.atomics", "false");
+        options.put("js.regexp-static-result", "false");
+        return options;
+    }
+
+    /**
+     * Returns whether guest code can be compiled by an optimizing Truffle runtime. When it can't, Terser runs in the
+     * Truffle interpreter, which is many times slower. The compilation options are only registered by an optimizing
+     * runtime, so their presence is used to detect it.
+     */
+    public static boolean isOptimizingRuntime() {
+        Boolean optimizing = optimizingRuntime;
+        if (optimizing == null) {
+            try (Engine engine = Engine.newBuilder().option("engine.WarnInterpreterOnly", "false").build()) {
+                optimizing = engine.getOptions().get(COMPILATION_PROBE_OPTION) != null;
+            }
+            optimizingRuntime = optimizing;
+        }
+        return optimizing;
+    }
+
+    static Map<String, ?> waitForResult(Value promise) throws InterruptedException, ExecutionException {
+        CompletableFuture<Object> cf = new CompletableFuture<>();
+        promise.invokeMember("then", (ProxyExecutable) arguments -> cf.complete(arguments[0].as(Map.class)))
+                .invokeMember("catch", (ProxyExecutable) arguments ->
+                        cf.completeExceptionally(new IllegalStateException(arguments[0].toString())));
+        return (Map<String,?>)cf.get();
+    }
+
+    /**
+     * Cancels a minification in progress on another thread, which fails with a cancellation, and closes the engine.
+     */
+    public void cancel() {
+        context.close(true);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
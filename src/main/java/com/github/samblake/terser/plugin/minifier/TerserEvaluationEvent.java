@@ -0,0 +1,19 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event covering the evaluation of a Terser or Source Map source in a new engine.
+ */
+@Name("com.github.samblake.terser.TerserEvaluation")
+@Label("Terser Evaluation")
+@Category({ "Terser" })
+@Description("Evaluation of a library source in a script context")
+class TerserEvaluationEvent extends Event {
+    @Label("Source")
+    String source;
+}
@@ -1,28 +1,21 @@
 package com.github.samblake.terser.plugin.minifier;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.maven.plugin.logging.Log;
 import org.graalvm.polyglot.Context;
-import org.graalvm.polyglot.Engine;
-import org.graalvm.polyglot.HostAccess;
-import org.graalvm.polyglot.PolyglotAccess;
-import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
-import org.graalvm.polyglot.proxy.ProxyObject;
 
+import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
-import java.util.function.Consumer;
 import java.util.stream.Stream;
 
-import static com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES;
-import static com.oracle.truffle.js.runtime.JSContextOptions.UNHANDLED_REJECTIONS_NAME;
 import static java.lang.String.format;
 import static java.lang.System.lineSeparator;
 import static java.util.Objects.requireNonNull;
@@ -30,50 +23,45 @@ import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.joining;
 
 public class TerserMinifier implements AutoCloseable {
-    private static final String CODE_VARIABLE = "code";
-    private static final String OPTIONS_VARIABLE = "options";
-    private static final String TERSER_EXECUTE = "Terser.minify(%s, %s)";
-
     private MinificationContext minificationContext;
-    private Context executionContext;
+    private volatile TerserEngine engine;
 
     private void initialize(final MinificationContext context) {
         requireNonNull(context);
-        if (this.minificationContext == null || !this.minificationContext.equals(context)) {
-            this.minificationContext = context;
+        final boolean requiresEngine = this.minificationContext == null
+                || !hasSameEngine(this.minificationContext, context);
+        this.minificationContext = context;
+        if (requiresEngine) {
+            close();
             initEngine();
         }
     }
 
+    /**
+     * Only the Terser and Source Map sources and the compilation settings go into the engine, so contexts that share
+     * them (for example those of different modules in a reactor) can reuse an already warm engine.
+     */
+    private static boolean hasSameEngine(final MinificationContext current, final MinificationContext next) {
+        return current.getTerserSource().equals(next.getTerserSource())
+                && current.getSourceMapSource().equals(next.getSourceMapSource())
+                && current.getCompilationSettings().equals(next.getCompilationSettings());
+    }
+
     private void initEngine() {
         minificationContext.getLog().debug("Initializing script engine");
 
-        try {
-            executionContext = createEngine();
-
-            if (minificationContext.getSourceMapSource().isPresent()) {
-                executionContext.eval(Source.newBuilder("js", minificationContext.getSourceMapSource().get()).build());
-            }
-
-            executionContext.eval(Source.newBuilder("js", minificationContext.getTerserSource()).build());
-        }
-        catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
+        final Optional<File> terserFile = minificationContext.getTerserSource();
+        engine = new TerserEngine(TerserSources.terser(terserFile),
+                TerserSources.sourceMap(terserFile, minificationContext.getSourceMapSource()),
+                minificationContext.getCompilationSettings());
     }
 
     protected static Context createEngine() {
-        Engine engine = Engine.newBuilder()
-                .option("engine.WarnInterpreterOnly", "false")
-                .build();
-
-        return Context.newBuilder()
-                .engine(engine)
-                .allowExperimentalOptions(true)
-                .allowPolyglotAccess(PolyglotAccess.ALL)
-                .allowHostAccess(HostAccess.ALL)
-                .option(UNHANDLED_REJECTIONS_NAME, "throw")
-                .build();
+        return createEngine(ImmutableCompilationSettings.builder().build());
+    }
+
+    protected static Context createEngine(final CompilationSettings compilationSettings) {
+        return TerserEngine.createContext(compilationSettings);
     }
 
     public synchronized Minification execute(final Minification minification) {
@@ -84,58 +72,110 @@ public class TerserMinifier implements AutoCloseable {
             log.info(format("Minifying %s -> %s", minification.getSource(), minification.getTarget()));
         }
 
-        try (Stream<String> lines = Files.lines(minification.getSource(), minificationContext.getCharset())) {
-            final String source = lines.collect(joining(lineSeparator()));
-
-            final Value bindings = executionContext.getBindings("js");
-            bindings.putMember(CODE_VARIABLE, source);
+        final MinificationEvent event = FlightRecorderEvents.isAvailable() ? new MinificationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        final long start = System.nanoTime();
 
-            Map<String, Object> options = parseOptions(minification);
-            bindings.putMember(OPTIONS_VARIABLE, ProxyObject.fromMap(options));
+        try {
+            final String source = read(minification);
+            final long read = System.nanoTime();
 
-            String command = format(TERSER_EXECUTE, CODE_VARIABLE, OPTIONS_VARIABLE);
-            Value promise = executionContext.eval("js", command);
+            final List<TerserResult> results = minification.getVariants().isEmpty()
+                    ? Collections.singletonList(engine.minify(source, minificationContext.getOptions()))
+                    : engine.minify(source, getVariantOptions(minification));
+            final TerserResult result = results.get(0);
+            final long minified = System.nanoTime();
 
-            Map<String, ?> results = waitForResult(promise);
-            try {
-                String code = (String)results.get("code");
+            if (log.isDebugEnabled()) {
+                log.debug(format("%s result:\n%s", minification.getTarget(), result.getCode()));
+            }
 
-                if (log.isDebugEnabled()) {
-                    log.debug(format("%s result:\n%s", minification.getTarget(), code));
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    final Charset charset = minificationContext.getCharset();
+                    event.file = minification.getSource().toString();
+                    event.bytesIn = source.getBytes(charset).length;
+                    event.bytesOut = result.getCode().getBytes(charset).length;
+                    event.readDuration = read - start;
+                    event.minifyDuration = minified - read;
+                    event.commit();
                 }
-
-                ImmutableMinification result = ImmutableMinification.copyOf(minification)
-                        .withResult(code);
-
-                String map = (String)results.get("map");
-                return map == null ? result : result.withSourceMap(map);
             }
-            catch (Exception e) {
-                log.error("Invalid result: " + results.toString());
-                throw new RuntimeException("Invalid result", e);
+
+            final List<Minification> variants = new ArrayList<>();
+            for (int i = 0; i < minification.getVariants().size(); i++) {
+                variants.add(withResult(minification.getVariants().get(i), results.get(i + 1)));
             }
+            return withResult(minification, result).withVariants(variants);
         }
         catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    private Map<String, Object> parseOptions(Minification minification) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(ALLOW_UNQUOTED_FIELD_NAMES, true);
-        return mapper.readValue(minification.getContext().getOptions(), HashMap.class);
+    /**
+     * Returns the code of the minification, reading the source unless the code is already given.
+     */
+    public static String read(final Minification minification) throws IOException {
+        if (minification.getCode().isPresent()) {
+            return minification.getCode().get();
+        }
+        try (Stream<String> lines = Files.lines(minification.getSource(), minification.getContext().getCharset())) {
+            return lines.collect(joining(lineSeparator()));
+        }
+    }
+
+    /**
+     * The options of the main output followed by those of each variant.
+     */
+    private static List<Map<String, Object>> getVariantOptions(final Minification minification) {
+        final List<Map<String, Object>> options = new ArrayList<>();
+        options.add(TerserEngine.parseOptions(minification.getContext().getOptions()));
+        minification.getVariants().forEach(variant ->
+                options.add(TerserEngine.parseOptions(variant.getContext().getOptions())));
+        return options;
+    }
+
+    private static ImmutableMinification withResult(final Minification minification, final TerserResult result) {
+        return ImmutableMinification.copyOf(minification)
+                .withResult(result.getCode())
+                .withSourceMap(result.getSourceMap())
+                .withTimings(result.getTimings());
+    }
+
+    /**
+     * Initializes the engine for the given context ahead of the first {@link #execute(Minification)}, allowing a
+     * minifier to be warmed up in the background.
+     */
+    public synchronized TerserMinifier prepare(final MinificationContext context) {
+        initialize(context);
+        return this;
+    }
+
+    /**
+     * The engine of the last minification, if any.
+     */
+    Optional<TerserEngine> getEngine() {
+        return ofNullable(engine);
     }
 
     protected static Map<String, ?> waitForResult(Value promise) throws InterruptedException, ExecutionException {
-        CompletableFuture<Object> cf = new CompletableFuture<>();
-        promise.invokeMember("then", (Consumer<Object>) cf::complete)
-                .invokeMember("catch", (Consumer<Throwable>) cf::completeExceptionally);
-        return (Map<String,?>)cf.get();
+        return TerserEngine.waitForResult(promise);
+    }
+
+    /**
+     * Cancels the minification in progress, if any, from another thread. The minifier can't be used afterwards.
+     */
+    public void cancel() {
+        ofNullable(engine).ifPresent(TerserEngine::cancel);
     }
 
     @Override
     public void close() {
-        ofNullable(executionContext).ifPresent(Context::close);
+        ofNullable(engine).ifPresent(TerserEngine::close);
     }
 
 }
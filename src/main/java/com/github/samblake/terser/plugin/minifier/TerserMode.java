@@ -0,0 +1,60 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A preset applied on top of the configured Terser options, so development builds can trade output size for speed
+ * without changing the configuration.
+ */
+public enum TerserMode {
+    /**
+     * The configured options, unchanged.
+     */
+    RELEASE,
+
+    /**
+     * Skips the compressor, which accounts for most of the time Terser takes, and strips all comments. Mangling,
+     * source maps and the other options are kept as configured.
+     */
+    FAST {
+        @Override
+        public String apply(final String options) {
+            final Map<String, Object> fastOptions = TerserEngine.parseOptions(options);
+            fastOptions.put("compress", false);
+
+            final Object format = fastOptions.get("format");
+            final Map<String, Object> fastFormat = format instanceof Map
+                    ? new HashMap<>((Map<String, Object>)format)
+                    : new HashMap<>();
+            fastFormat.put("comments", false);
+            fastOptions.put("format", fastFormat);
+
+            return TerserEngine.formatOptions(fastOptions);
+        }
+    };
+
+    /**
+     * Returns the options Terser is run with in this mode.
+     */
+    public String apply(final String options) {
+        return options;
+    }
+
+    /**
+     * Returns the mode with the given name, ignoring case.
+     */
+    public static TerserMode fromName(final String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown Terser mode '" + name + "', expected one of "
+                    + stream(values()).map(mode -> mode.name().toLowerCase(Locale.ROOT)).collect(joining(", ")), e);
+        }
+    }
+}
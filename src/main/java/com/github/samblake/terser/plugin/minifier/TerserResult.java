@@ -0,0 +1,19 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.immutables.value.Value;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+@Value.Immutable
+public interface TerserResult {
+    String getCode();
+
+    Optional<String> getSourceMap();
+
+    /**
+     * The time spent in each Terser phase, in the order they ran, when minified with the {@code timings} option.
+     */
+    Map<String, Duration> getTimings();
+}
@@ -0,0 +1,210 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.graalvm.polyglot.Source;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Thread safe, in-memory minification for embedding in applications that generate JavaScript at runtime. Requests are
+ * served by a fixed pool of warm {@link TerserEngine}s, created in parallel up front, and results are kept in a
+ * size-bounded LRU cache keyed by a hash of the code and options.
+ */
+public class TerserService implements AutoCloseable {
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final List<TerserEngine> engines;
+    private final BlockingQueue<TerserEngine> available;
+    private final ResultCache cache;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * Creates a service running the Terser bundled with the plugin.
+     *
+     * @see #TerserService(Source, Optional, int, long)
+     */
+    public TerserService(final int poolSize, final long maxCacheBytes) {
+        this(TerserSources.bundledTerser(), Optional.of(TerserSources.bundledSourceMap()), poolSize, maxCacheBytes);
+    }
+
+    /**
+     * @param poolSize number of engines, and so the maximum number of concurrent minifications
+     * @param maxCacheBytes approximate memory to spend on cached results, zero to disable caching
+     */
+    public TerserService(final Source terserSource, final Optional<Source> sourceMapSource, final int poolSize,
+            final long maxCacheBytes) {
+
+        this(engineFactory(requireNonNull(terserSource), requireNonNull(sourceMapSource)), poolSize, maxCacheBytes);
+    }
+
+    TerserService(final Supplier<TerserEngine> engineFactory, final int poolSize, final long maxCacheBytes) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Invalid pool size " + poolSize);
+        }
+
+        // On threads with the plugin's class loader as their context class loader, as the common pool's lack it
+        final Executor executor = RecyclingMinifier.warmUpExecutor(getClass().getClassLoader());
+        final List<CompletableFuture<TerserEngine>> futures = new ArrayList<>();
+        for (int i = 0; i < poolSize; i++) {
+            futures.add(CompletableFuture.supplyAsync(engineFactory, executor));
+        }
+        this.engines = join(futures);
+        this.available = new ArrayBlockingQueue<>(poolSize, false, engines);
+        this.cache = new ResultCache(maxCacheBytes);
+    }
+
+    private static Supplier<TerserEngine> engineFactory(final Source terserSource,
+            final Optional<Source> sourceMapSource) {
+
+        return () -> new TerserEngine(terserSource, sourceMapSource);
+    }
+
+    /**
+     * Waits for all engines to be created. Should any fail, the engines that were created are closed and the
+     * failure is thrown.
+     */
+    private static List<TerserEngine> join(final List<CompletableFuture<TerserEngine>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        }
+        catch (CompletionException e) {
+            // Every engine is done by now, so those created are closed right away
+            futures.forEach(future -> future.thenAccept(TerserEngine::close));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error)e.getCause();
+            }
+            throw e;
+        }
+        return futures.stream().map(CompletableFuture::join).collect(toList());
+    }
+
+    public TerserResult minify(final byte[] code, final Charset charset, final String options) {
+        return minify(new String(code, charset), options);
+    }
+
+    /**
+     * Minifies the code with options in (relaxed) JSON form, blocking while all engines are busy.
+     */
+    public TerserResult minify(final String code, final String options) {
+        final String key = hash(code, options);
+        final TerserResult cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+        cacheMisses.incrementAndGet();
+
+        final TerserEngine engine = acquire();
+        try {
+            final TerserResult result = engine.minify(code, options);
+            cache.put(key, result);
+            return result;
+        }
+        finally {
+            available.add(engine);
+        }
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    private TerserEngine acquire() {
+        try {
+            return available.take();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an engine", e);
+        }
+    }
+
+    private static String hash(final String code, final String options) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            digest.update(options.getBytes(UTF_8));
+            digest.update((byte)0);
+            digest.update(code.getBytes(UTF_8));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        engines.forEach(TerserEngine::close);
+    }
+
+    /**
+     * An access ordered map evicting the least recently used results once their estimated size exceeds the limit.
+     */
+    private static class ResultCache {
+        private final long maxBytes;
+        private final LinkedHashMap<String, TerserResult> results = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+
+        ResultCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized TerserResult get(final String key) {
+            return results.get(key);
+        }
+
+        synchronized void put(final String key, final TerserResult result) {
+            final long size = sizeOf(key, result);
+            if (size > maxBytes) {
+                return;
+            }
+
+            final TerserResult previous = results.put(key, result);
+            if (previous != null) {
+                bytes -= sizeOf(key, previous);
+            }
+            bytes += size;
+
+            final Iterator<Map.Entry<String, TerserResult>> eldest = results.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                final Map.Entry<String, TerserResult> entry = eldest.next();
+                bytes -= sizeOf(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        }
+
+        private static long sizeOf(final String key, final TerserResult result) {
+            // Two bytes per character is a close enough estimate for the retained strings
+            final long characters = key.length() + result.getCode().length()
+                    + result.getSourceMap().map(String::length).orElse(0);
+            return characters * 2;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.graalvm.polyglot.Source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The Terser and Source Map scripts, either the versions bundled with the plugin or given files. Sources are cached, so
+ * every engine created for the same script shares one {@link Source} rather than reading the script again, and the
+ * source can be used to tell which Terser an engine runs.
+ */
+public final class TerserSources {
+    public static final String TERSER_VERSION = "5.21.0";
+    public static final String SOURCE_MAP_VERSION = "0.7.3";
+
+    private static final String TERSER_RESOURCE = "terser-" + TERSER_VERSION + ".js";
+    private static final String SOURCE_MAP_RESOURCE = "source-map-" + SOURCE_MAP_VERSION + ".js";
+
+    private static final Map<Object, Source> SOURCES = new ConcurrentHashMap<>();
+
+    private TerserSources() {
+    }
+
+    /**
+     * The Terser bundled with the plugin, which expects the bundled Source Map for generating source maps.
+     */
+    public static Source bundledTerser() {
+        return SOURCES.computeIfAbsent(TERSER_RESOURCE, TerserSources::fromResource);
+    }
+
+    public static Source bundledSourceMap() {
+        return SOURCES.computeIfAbsent(SOURCE_MAP_RESOURCE, TerserSources::fromResource);
+    }
+
+    /**
+     * Returns the script in the given file, read again only once the file has changed.
+     */
+    public static Source fromFile(final File file) {
+        final File absolute = file.getAbsoluteFile();
+        return SOURCES.computeIfAbsent(Arrays.asList(absolute, absolute.lastModified(), absolute.length()),
+                key -> {
+                    try {
+                        return Source.newBuilder("js", absolute).build();
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * The given Terser, or the bundled one when none is given.
+     */
+    static Source terser(final Optional<File> terserFile) {
+        return terserFile.map(TerserSources::fromFile).orElseGet(TerserSources::bundledTerser);
+    }
+
+    /**
+     * The given Source Map. When neither it nor a Terser is given the bundled Source Map is used along with the
+     * bundled Terser, otherwise a given Terser is run without one, as it may be a build including its own.
+     */
+    static Optional<Source> sourceMap(final Optional<File> terserFile, final Optional<File> sourceMapFile) {
+        if (sourceMapFile.isPresent()) {
+            return sourceMapFile.map(TerserSources::fromFile);
+        }
+        return terserFile.isPresent() ? Optional.empty() : Optional.of(bundledSourceMap());
+    }
+
+    private static Source fromResource(final Object resource) {
+        final InputStream stream = TerserSources.class.getResourceAsStream(resource.toString());
+        if (stream == null) {
+            throw new IllegalStateException("Bundled script " + resource + " not found");
+        }
+
+        try (Reader reader = new InputStreamReader(stream, UTF_8)) {
+            return Source.newBuilder("js", reader, resource.toString()).build();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ContentHashingWriterTest {
+    private static final String RESULT = "var a=1;\n//# sourceMappingURL=app.min.js.map";
+    private static final String MAP = "{\"version\":3,\"file\":\"app.min.js\",\"mappings\":\"AAAA\"}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Log log;
+
+    @Test
+    public void shouldInsertHashBeforeSuffix() {
+        assertThat(ContentHashingWriter.insertHash("app.min.js", "min", "3f9a1c")).isEqualTo("app.3f9a1c.min.js");
+        assertThat(ContentHashingWriter.insertHash("app.js", "", "3f9a1c")).isEqualTo("app.3f9a1c.js");
+        assertThat(ContentHashingWriter.insertHash("app", "min", "3f9a1c")).isEqualTo("app.3f9a1c");
+    }
+
+    @Test
+    public void shouldWriteHashedFilesAndManifest() throws Exception {
+        // Given
+        Path target = folder.getRoot().toPath();
+        Path manifest = target.resolve("manifest.json");
+        String hash = ContentHashingWriter.hash(RESULT.getBytes(UTF_8), 8);
+
+        Minification minification = ImmutableMinification.builder()
+                .source(Paths.get("app.js"))
+                .target(target.resolve(Paths.get("js", "app.min.js")))
+                .result(RESULT)
+                .sourceMap(MAP)
+                .context(ImmutableMinificationContext.builder()
+                        .terserSource(new File("/"))
+                        .options("{sourceMap: {url: 'app.min.js.map'}}")
+                        .charset(UTF_8)
+                        .log(log).build())
+                .build();
+
+        // When
+        try (ContentHashingWriter writer = new ContentHashingWriter(new TargetFileWriter(), target, manifest, "min",
+                8)) {
+            writer.write(minification);
+        }
+
+        // Then
+        String hashedName = "app." + hash + ".min.js";
+        assertThat(target.resolve(Paths.get("js", "app.min.js"))).doesNotExist();
+        assertThat(new String(Files.readAllBytes(target.resolve(Paths.get("js", hashedName))), UTF_8))
+                .isEqualTo("var a=1;\n//# sourceMappingURL=" + hashedName + ".map");
+        assertThat(new String(Files.readAllBytes(target.resolve(Paths.get("js", hashedName + ".map"))), UTF_8))
+                .contains("\"file\":\"" + hashedName + "\"");
+        assertThat(new String(Files.readAllBytes(manifest), UTF_8))
+                .contains("\"js/app.min.js\" : \"js/" + hashedName + "\"");
+    }
+}
@@ -1,16 +1,24 @@
 package com.github.samblake.terser.plugin;
 
 import com.github.samblake.terser.plugin.minifier.Minification;
+import org.codehaus.plexus.util.Scanner;
 import org.junit.Before;
 import org.junit.Test;
+import org.sonatype.plexus.build.incremental.BuildContext;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class MinificationInitializerTest {
     private TerserMojo terserMojo;
@@ -89,6 +97,21 @@ public class MinificationInitializerTest {
         assertThat(getSourceFilesNames(minifications)).containsOnly("test.js", "test-nullish.js", "test-async.js");
     }
 
+    @Test
+    public void shouldPassFilesAsTheyAreFound() {
+        //given
+        terserMojo.setJsSourceFile("/src/a/test-es6.js");
+        terserMojo.setJsSourceInclude("/src/a/test-*.js");
+        terserMojo.setVariants(Collections.singletonList(new OutputVariant("debug", "debug", "{mangle:false}")));
+        Set<Minification> minifications = ConcurrentHashMap.newKeySet();
+        //when
+        new MinificationInitializer(terserMojo).findMinifications(minifications::add);
+        //then
+        assertThat(getSourceFilesNames(minifications)).containsExactlyInAnyOrder("test-es6.js", "test-nullish.js",
+                "test-async.js");
+        assertThat(minifications).allSatisfy(minification -> assertThat(minification.getVariants()).hasSize(1));
+    }
+
     @Test
     public void shouldMapRelatively() {
         //given
@@ -115,6 +138,59 @@ public class MinificationInitializerTest {
         assertThat(fileName).isEqualTo("test.min.js");
     }
 
+    @Test
+    public void shouldAddVariantsWithTheirOwnSuffix() {
+        //given
+        terserMojo.setJsSourceFile("/src/test.js");
+        terserMojo.setSuffix("min");
+        terserMojo.setVariants(Collections.singletonList(new OutputVariant("debug", "debug", "{mangle:false}")));
+        //when
+        Set<Minification> minifications = new MinificationInitializer(terserMojo).getMinification();
+        //then
+        Minification variant = minifications.iterator().next().getVariants().get(0);
+        assertThat(variant.getVariant()).contains("debug");
+        assertThat(variant.getTarget().getFileName().toString()).isEqualTo("test.debug.js");
+        assertThat(variant.getContext().getOptions()).isEqualTo("{mangle:false}");
+    }
+
+    @Test
+    public void shouldSelectLightweightMinifierByPattern() {
+        //given
+        terserMojo.setJsSourceInclude("/src/a/test-*.js");
+        terserMojo.setLightweightIncludes(Collections.singletonList("/src/a/*nullish*"));
+        terserMojo.setVariants(Collections.singletonList(new OutputVariant("debug", "debug", "{mangle:false}")));
+        //when
+        Set<Minification> minifications = new MinificationInitializer(terserMojo).getMinification();
+        //then
+        assertThat(minifications)
+                .filteredOn(minification -> minification.getContext().isLightweight())
+                .extracting(minification -> minification.getSource().getFileName().toString(),
+                        minification -> minification.getVariants().size())
+                .containsOnly(tuple("test-nullish.js", 0));
+        assertThat(minifications)
+                .filteredOn(minification -> !minification.getContext().isLightweight())
+                .allSatisfy(minification -> assertThat(minification.getVariants()).hasSize(1))
+                .hasSize(2);
+    }
+
+    @Test
+    public void shouldOnlyGetChangedFilesInIncrementalBuild() {
+        //given
+        BuildContext buildContext = mock(BuildContext.class);
+        Scanner scanner = mock(Scanner.class);
+        when(buildContext.isIncremental()).thenReturn(true);
+        when(buildContext.newScanner(terserMojo.getSourceDir(), false)).thenReturn(scanner);
+        when(buildContext.hasDelta(any(File.class))).thenReturn(false);
+        when(scanner.getIncludedFiles()).thenReturn(new String[] {"src/a/test-es6.js"});
+        terserMojo.setBuildContext(buildContext);
+        terserMojo.setJsSourceFile("/src/test.js");
+        terserMojo.setJsSourceInclude("/src/a/test-*.js");
+        //when
+        Set<Minification> minifications = new MinificationInitializer(terserMojo).getMinification();
+        //then
+        assertThat(getSourceFilesNames(minifications)).containsOnly("test-es6.js");
+    }
+
     private Stream<String> getSourceFilesNames(Set<Minification> minifications) {
         return minifications.parallelStream()
                 .map(Minification::getSource)
@@ -0,0 +1,81 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.System.lineSeparator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PhaseTimingReportTest {
+    private final Path target = Paths.get("target", "js");
+
+    @Mock
+    private Log log;
+
+    @Test
+    public void shouldReportTotalsAndSlowestFiles() {
+        // Given
+        PhaseTimingReport report = new PhaseTimingReport(target, 1);
+
+        // When
+        report.record(minification("fast.min.js", 10, 20));
+        report.record(minification("slow.min.js", 100, 400));
+        report.record(minification("plain.min.js", -1, -1));
+
+        // Then
+        assertThat(report.report()).hasValueSatisfying(table -> {
+            String[] rows = table.split(lineSeparator());
+            assertThat(rows).hasSize(3);
+            assertThat(rows[0]).contains("parse").contains("compress").contains("total");
+            assertThat(rows[1]).startsWith("All 2 files").contains("0.110 s").contains("0.420 s").contains("0.530 s");
+            assertThat(rows[2]).startsWith("slow.min.js").contains("0.500 s");
+        });
+    }
+
+    @Test
+    public void shouldNotReportWithoutTimings() {
+        // Given
+        PhaseTimingReport report = new PhaseTimingReport(target, 10);
+
+        // When
+        report.record(minification("plain.min.js", -1, -1));
+
+        // Then
+        assertThat(report.report()).isEmpty();
+    }
+
+    private Minification minification(String file, long parseMillis, long compressMillis) {
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        if (parseMillis >= 0) {
+            timings.put("parse", Duration.ofMillis(parseMillis));
+            timings.put("compress", Duration.ofMillis(compressMillis));
+            timings.put(PhaseTimingReport.TOTAL, Duration.ofMillis(parseMillis + compressMillis));
+        }
+        return ImmutableMinification.builder()
+                .source(Paths.get(file))
+                .target(target.resolve(file))
+                .result("")
+                .timings(timings)
+                .context(ImmutableMinificationContext.builder()
+                        .terserSource(new File("/"))
+                        .options("{}")
+                        .charset(UTF_8)
+                        .log(log).build())
+                .build();
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.samblake.terser.plugin;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static java.lang.Integer.getInteger;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Locale.ROOT;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs {@link TerserMojo} against a generated corpus at several thread counts, recording the wall time, peak heap,
+ * peak resident set size and files per second. Throughput is compared with a stored baseline, failing on a regression
+ * beyond the tolerance. The results of every run are written to {@code target/scalability-results.properties}, which
+ * can be copied over the baseline after a deliberate change. Baselines are specific to a machine.
+ * <p>
+ * Only runs when enabled, for example:
+ * <pre>
+ * mvn test -Dtest=ScalabilityTest -Dterser.scalability=true -Dterser.scalability.modules=5000
+ * </pre>
+ */
+public class ScalabilityTest {
+    private static final String BASELINE = System.getProperty("terser.scalability.baseline",
+            "src/test/scalability-baseline.properties");
+    private static final Path RESULTS = Paths.get("target", "scalability-results.properties");
+    private static final double TOLERANCE = Double.parseDouble(
+            System.getProperty("terser.scalability.tolerance", "0.2"));
+
+    private static Path corpus;
+    private static int files;
+
+    private final Log log = new SystemStreamLog();
+
+    @BeforeClass
+    public static void generateCorpus() throws IOException {
+        assumeTrue("Scalability test not enabled", Boolean.getBoolean("terser.scalability"));
+
+        final int modules = getInteger("terser.scalability.modules", 2000);
+        final int bundles = getInteger("terser.scalability.bundles", 3);
+
+        corpus = Files.createTempDirectory("terser-corpus");
+        new SyntheticCorpus(42).generate(corpus, modules, getInteger("terser.scalability.depth", 8), bundles,
+                getInteger("terser.scalability.bundleBytes", 2 * 1024 * 1024));
+        files = modules + bundles;
+    }
+
+    @AfterClass
+    public static void deleteCorpus() throws IOException {
+        if (corpus != null) {
+            delete(corpus);
+        }
+    }
+
+    @Test
+    public void shouldScaleWithThreads() throws Exception {
+        final Properties baseline = load(Paths.get(BASELINE));
+        final Properties results = new Properties();
+        final List<String> regressions = new ArrayList<>();
+
+        for (int threads : threadCounts()) {
+            final Path target = Files.createTempDirectory("terser-target");
+            resetPeakHeap();
+
+            final long start = System.nanoTime();
+            getTerserMojo(target, threads).execute();
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            delete(target);
+
+            final double filesPerSecond = files / seconds;
+            final String key = "threads." + threads;
+            results.setProperty(key + ".seconds", format(ROOT, "%.2f", seconds));
+            results.setProperty(key + ".filesPerSecond", format(ROOT, "%.2f", filesPerSecond));
+            results.setProperty(key + ".peakHeapBytes", Long.toString(peakHeap()));
+            results.setProperty(key + ".peakRssBytes", Long.toString(peakRss()));
+            log.info(format("%2d threads: %8.2f s, %8.2f files/s, peak heap %d MB, peak RSS %d MB",
+                    threads, seconds, filesPerSecond, peakHeap() >> 20, peakRss() >> 20));
+
+            final String expected = baseline.getProperty(key + ".filesPerSecond");
+            if (expected != null && filesPerSecond < Double.parseDouble(expected) * (1 - TOLERANCE)) {
+                regressions.add(format("%d threads: %.2f files/s, baseline %s files/s", threads, filesPerSecond,
+                        expected));
+            }
+        }
+
+        Files.createDirectories(RESULTS.getParent());
+        try (OutputStream out = Files.newOutputStream(RESULTS)) {
+            results.store(out, "Terser scalability results for " + files + " files");
+        }
+
+        if (baseline.isEmpty()) {
+            log.info("No baseline at " + BASELINE + ", copy " + RESULTS + " there to create one.");
+        }
+        assertThat(regressions).as("Throughput regressions beyond %.0f%%", TOLERANCE * 100).isEmpty();
+    }
+
+    private static TreeSet<Integer> threadCounts() {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final TreeSet<Integer> counts = new TreeSet<>();
+        for (int threads = 1; threads < processors; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(processors);
+        return counts;
+    }
+
+    private TerserMojo getTerserMojo(final Path target, final int threads) {
+        final TerserMojo terserMojo = new TerserMojo();
+        terserMojo.setLog(log);
+        terserMojo.setThreads(threads);
+        terserMojo.setTerserSrc(TestUtils.getTerserPath().toFile());
+        terserMojo.setSourceDir(corpus.toFile());
+        terserMojo.setTargetDir(target.toFile());
+        terserMojo.setJsSourceInclude("**/*.js");
+        terserMojo.setSuffix("min");
+        terserMojo.setOptions("{}");
+        terserMojo.setEncoding(UTF_8.name());
+        return terserMojo;
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static Properties load(final Path file) throws IOException {
+        final Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long peakHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    /**
+     * The high water mark of the process on Linux, which can't be reset so covers all runs so far. Zero elsewhere.
+     */
+    private static long peakRss() {
+        final Path status = Paths.get("/proc/self/status");
+        try {
+            if (Files.isReadable(status)) {
+                for (String line : Files.readAllLines(status, UTF_8)) {
+                    if (line.startsWith("VmHWM:")) {
+                        return Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                    }
+                }
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            // Not available
+        }
+        return 0;
+    }
+}
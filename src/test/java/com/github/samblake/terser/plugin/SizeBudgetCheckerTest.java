@@ -0,0 +1,98 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SizeBudgetCheckerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    private Log log;
+
+    @Test
+    public void shouldParseSizes() {
+        assertThat(SizeBudget.parseSize("250 KB")).isEqualTo(OptionalLong.of(250 * 1024));
+        assertThat(SizeBudget.parseSize("1.5mb")).isEqualTo(OptionalLong.of(1536 * 1024));
+        assertThat(SizeBudget.parseSize("100")).isEqualTo(OptionalLong.of(100));
+        assertThat(SizeBudget.parseSize(null)).isEmpty();
+    }
+
+    @Test
+    public void shouldReportFilesOverBudgetWithChange() throws Exception {
+        // Given
+        Path target = folder.newFolder("target").toPath();
+        Path history = folder.getRoot().toPath().resolve("sizes.tsv");
+        Path source = folder.newFile("app.js").toPath();
+        Files.write(source, "var answer = 42;".getBytes(UTF_8));
+        SizeBudget budget = new SizeBudget("js/*.min.js", null, "10B", null);
+
+        // When
+        SizeBudgetChecker first = new SizeBudgetChecker(Collections.singletonList(budget), target,
+                Optional.of(history));
+        first.record(minification(source, target.resolve("js/app.min.js"), "var answer=42;"));
+        first.record(minification(source, target.resolve("other.min.js"), "var answer=42;"));
+        Optional<String> firstReport = first.check();
+
+        SizeBudgetChecker second = new SizeBudgetChecker(Collections.singletonList(budget), target,
+                Optional.of(history));
+        second.record(minification(source, target.resolve("js/app.min.js"), "var answer=42,other=1;"));
+        Optional<String> secondReport = second.check();
+
+        // Then
+        assertThat(firstReport).hasValueSatisfying(report -> assertThat(report)
+                .contains("js/app.min.js").contains("minified").contains("14 B").contains("new")
+                .doesNotContain("other.min.js"));
+        assertThat(secondReport).hasValueSatisfying(report -> assertThat(report)
+                .contains("22 B").contains("+8 B"));
+    }
+
+    @Test
+    public void shouldNotReportFilesWithinBudget() throws Exception {
+        // Given
+        Path target = folder.newFolder("target").toPath();
+        Path source = folder.newFile("app.js").toPath();
+        SizeBudget budget = new SizeBudget("**/*.js", "1KB", "1KB", "1KB");
+        SizeBudgetChecker checker = new SizeBudgetChecker(Collections.singletonList(budget), target,
+                Optional.empty());
+
+        // When
+        checker.record(minification(source, target.resolve("app.min.js"), "var answer=42;"));
+
+        // Then
+        assertThat(checker.check()).isEmpty();
+    }
+
+    private Minification minification(Path source, Path target, String result) {
+        return ImmutableMinification.builder()
+                .source(source)
+                .target(target)
+                .result(result)
+                .context(ImmutableMinificationContext.builder()
+                        .terserSource(new File("/"))
+                        .options("{}")
+                        .charset(UTF_8)
+                        .log(log).build())
+                .build();
+    }
+}
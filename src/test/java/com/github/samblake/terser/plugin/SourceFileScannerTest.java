@@ -0,0 +1,83 @@
+package com.github.samblake.terser.plugin;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SourceFileScannerTest {
+    private Path baseDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        baseDirectory = Files.createTempDirectory("terser");
+        createFile("app.js");
+        createFile("lib/util.js");
+        createFile("lib/deep/nested/module.js");
+        createFile("lib/deep/nested/readme.txt");
+        createFile("vendor/big.js");
+        createFile(".git/hooks/script.js");
+    }
+
+    @Test
+    public void shouldMatchDoubleStarAcrossZeroOrMoreDirectories() {
+        //when
+        Set<Path> files = scan(Collections.singletonList("**/*.js"), Collections.emptyList());
+        //then
+        assertThat(files).containsOnly(
+                Paths.get("app.js"),
+                Paths.get("lib", "util.js"),
+                Paths.get("lib", "deep", "nested", "module.js"),
+                Paths.get("vendor", "big.js"));
+    }
+
+    @Test
+    public void shouldMatchSingleStarWithinOneDirectory() {
+        //when
+        Set<Path> files = scan(Collections.singletonList("/lib/*.js"), Collections.emptyList());
+        //then
+        assertThat(files).containsOnly(Paths.get("lib", "util.js"));
+    }
+
+    @Test
+    public void shouldApplyExcludes() {
+        //when
+        Set<Path> files = scan(Collections.singletonList("**/*.js"), Arrays.asList("vendor/", "**/n?sted/*.js"));
+        //then
+        assertThat(files).containsOnly(Paths.get("app.js"), Paths.get("lib", "util.js"));
+    }
+
+    @Test
+    public void shouldPruneDirectoriesThatCannotHoldIncludedFiles() {
+        PathPattern include = new PathPattern("lib/deep/**/*.js");
+        assertThat(include.couldMatchBelow(new String[] {"lib"})).isTrue();
+        assertThat(include.couldMatchBelow(new String[] {"vendor"})).isFalse();
+
+        PathPattern exclude = new PathPattern("**/.git/**");
+        assertThat(exclude.matchesEverythingBelow(new String[] {".git"})).isTrue();
+        assertThat(exclude.matchesEverythingBelow(new String[] {"lib"})).isFalse();
+    }
+
+    private Set<Path> scan(List<String> includes, List<String> excludes) {
+        Set<Path> files = new SourceFileScanner(baseDirectory, includes, excludes).scan();
+        return files.stream()
+                .map(baseDirectory::relativize)
+                .collect(toSet());
+    }
+
+    private void createFile(String path) throws IOException {
+        Path file = baseDirectory.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, "var a = 1;".getBytes());
+    }
+}
@@ -0,0 +1,131 @@
+package com.github.samblake.terser.plugin;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates a reproducible tree of JavaScript sources resembling an application: many small modules spread over a deep
+ * directory tree and a few large bundles. The code uses functions, classes, closures, loops, template literals and
+ * comments so Terser has something to compress, mangle and strip.
+ */
+class SyntheticCorpus {
+    private static final String[] WORDS = { "user", "order", "item", "price", "total", "render", "state", "config",
+            "event", "handler", "value", "index", "result", "request", "response", "cache", "node", "list", "count",
+            "format" };
+
+    private final Random random;
+    private int identifiers;
+
+    SyntheticCorpus(final long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes the modules below {@code modules/} nested up to the given depth, and the bundles below {@code bundles/}.
+     */
+    void generate(final Path root, final int moduleCount, final int depth, final int bundleCount,
+            final int bundleBytes) throws IOException {
+
+        for (int i = 0; i < moduleCount; i++) {
+            Path directory = root.resolve("modules");
+            final int moduleDepth = 1 + random.nextInt(Math.max(1, depth));
+            for (int level = 0; level < moduleDepth; level++) {
+                directory = directory.resolve(WORDS[(i / (level + 1) + level) % WORDS.length]);
+            }
+            write(directory.resolve("module" + i + ".js"), 2 + random.nextInt(6));
+        }
+
+        for (int i = 0; i < bundleCount; i++) {
+            final Path bundle = root.resolve("bundles").resolve("bundle" + i + ".js");
+            Files.createDirectories(bundle.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(bundle, UTF_8)) {
+                long written = 0;
+                while (written < bundleBytes) {
+                    final String unit = unit();
+                    writer.write(unit);
+                    written += unit.length();
+                }
+            }
+        }
+    }
+
+    private void write(final Path file, final int units) throws IOException {
+        Files.createDirectories(file.getParent());
+        final StringBuilder source = new StringBuilder();
+        for (int i = 0; i < units; i++) {
+            source.append(unit());
+        }
+        Files.write(file, source.toString().getBytes(UTF_8));
+    }
+
+    private String unit() {
+        switch (random.nextInt(3)) {
+            case 0:
+                return function();
+            case 1:
+                return type();
+            default:
+                return closure();
+        }
+    }
+
+    private String function() {
+        final String name = identifier();
+        final String items = identifier();
+        final String total = identifier();
+        return "/**\n * Computes the " + word() + " of the given " + word() + "s.\n */\n"
+                + "function " + name + "(" + items + ", factor) {\n"
+                + "    var " + total + " = 0;\n"
+                + "    for (var i = 0; i < " + items + ".length; i++) {\n"
+                + "        if (" + items + "[i] !== undefined && " + items + "[i] !== null) {\n"
+                + "            " + total + " += " + items + "[i]." + word() + " * factor;\n"
+                + "        }\n"
+                + "    }\n"
+                + "    return " + total + " > " + random.nextInt(1000) + " ? " + total + " : 0;\n"
+                + "}\n\n";
+    }
+
+    private String type() {
+        final String name = Character.toUpperCase(word().charAt(0)) + identifier();
+        final String field = word();
+        return "class " + name + " {\n"
+                + "    constructor(" + field + ") {\n"
+                + "        this." + field + " = " + field + ";\n"
+                + "        this.created = Date.now();\n"
+                + "    }\n\n"
+                + "    // Describes the instance for logging\n"
+                + "    describe() {\n"
+                + "        return `" + name + " with ${this." + field + "} created at ${this.created}`;\n"
+                + "    }\n"
+                + "}\n\n";
+    }
+
+    private String closure() {
+        final String name = identifier();
+        final String cache = identifier();
+        return "const " + name + " = (function () {\n"
+                + "    const " + cache + " = new Map();\n"
+                + "    return function (key) {\n"
+                + "        if (!" + cache + ".has(key)) {\n"
+                + "            " + cache + ".set(key, [key, '" + word() + "', " + random.nextInt(100) + "]"
+                + ".map(function (part) { return String(part).toUpperCase(); }).join('-'));\n"
+                + "        }\n"
+                + "        return " + cache + ".get(key);\n"
+                + "    };\n"
+                + "})();\n\n";
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String identifier() {
+        final String second = word();
+        return word() + Character.toUpperCase(second.charAt(0)) + second.substring(1) + identifiers++;
+    }
+}
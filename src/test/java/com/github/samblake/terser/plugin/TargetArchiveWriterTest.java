@@ -0,0 +1,107 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.minifier.ImmutableMinification;
+import com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext;
+import com.github.samblake.terser.plugin.minifier.Minification;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TargetArchiveWriterTest {
+    private static final Path TARGET_DIRECTORY = Paths.get("target-dir");
+
+    @Mock
+    private Log log;
+
+    @Test
+    public void shouldWriteEntriesInTargetOrder() throws Exception {
+        // Given
+        Path archive = Files.createTempDirectory("terser").resolve("assets.jar");
+        Minification first = getMinification("a/first.min.js", "first", null);
+        Minification second = getMinification("b/second.min.js", "second", "map");
+
+        // When
+        try (TargetArchiveWriter writer = new TargetArchiveWriter(archive, TARGET_DIRECTORY,
+                Arrays.asList(first, second), true)) {
+            writer.write(second);
+            writer.write(first);
+        }
+
+        // Then
+        assertThat(getEntryNames(archive)).containsExactly(
+                "a/first.min.js",
+                "a/first.min.js.gz",
+                "b/second.min.js",
+                "b/second.min.js.gz",
+                "b/second.min.js.map",
+                "b/second.min.js.map.gz");
+    }
+
+    @Test
+    public void shouldNotWriteArchiveWhenResultsAreMissing() throws Exception {
+        // Given
+        Path archive = Files.createTempDirectory("terser").resolve("assets.jar");
+        Minification first = getMinification("a/first.min.js", "first", null);
+        Minification second = getMinification("b/second.min.js", "second", null);
+
+        // When
+        Throwable thrown = null;
+        try (TargetArchiveWriter writer = new TargetArchiveWriter(archive, TARGET_DIRECTORY,
+                Arrays.asList(first, second), false)) {
+            writer.write(first);
+        }
+        catch (IllegalStateException e) {
+            thrown = e;
+        }
+
+        // Then
+        assertThat(thrown).hasMessageContaining("second.min.js");
+        assertThat(archive).doesNotExist();
+    }
+
+    private Minification getMinification(String target, String result, String map) {
+        ImmutableMinificationContext context = ImmutableMinificationContext.builder()
+                .terserSource(new File("/"))
+                .options("{}")
+                .charset(UTF_8)
+                .log(log).build();
+
+        ImmutableMinification.Builder builder = ImmutableMinification.builder()
+                .source(Paths.get("src").resolve(target))
+                .target(TARGET_DIRECTORY.resolve(target))
+                .result(result)
+                .context(context);
+        if (map != null) {
+            builder.sourceMap(map);
+        }
+        return builder.build();
+    }
+
+    private List<String> getEntryNames(Path archive) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+}
@@ -13,6 +13,8 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -43,7 +45,9 @@ public class TargetFileWriterTest {
                 .build();
 
         // When
-        TargetFileWriter.writeTargetFile(minification);
+        try (TargetFileWriter writer = new TargetFileWriter()) {
+            writer.writeTargetFile(minification);
+        }
 
         // Then
         byte[] bytes = Files.readAllBytes(TMP_DIRECTORY.resolve(Paths.get("src", "test.js")));
@@ -68,10 +72,114 @@ public class TargetFileWriterTest {
                 .build();
 
         // When
-        TargetFileWriter.writeMapFile(minification);
+        try (TargetFileWriter writer = new TargetFileWriter()) {
+            writer.writeMapFile(minification);
+        }
 
         // Then
         byte[] bytes = Files.readAllBytes(TMP_DIRECTORY.resolve(Paths.get("src", "test.js.map")));
         assertThat(bytes).isEqualTo(TEST_MAP.getBytes());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldReplaceExistingFileWithoutLeavingTemporaryFiles() throws Exception {
+        // Given
+        Path directory = Files.createTempDirectory("terser");
+        Path target = directory.resolve(Paths.get("nested", "test.js"));
+        Files.createDirectories(target.getParent());
+        Files.write(target, "previous content".getBytes());
+
+        ImmutableMinificationContext context = ImmutableMinificationContext.builder()
+                .terserSource(new File("/"))
+                .options("{}")
+                .charset(UTF_8)
+                .log(log).build();
+
+        Minification minification = ImmutableMinification.builder()
+                .source(Paths.get("foo"))
+                .target(target)
+                .result(TEST_INPUT)
+                .context(context)
+                .build();
+
+        // When
+        try (TargetFileWriter writer = new TargetFileWriter(1)) {
+            writer.write(minification);
+        }
+
+        // Then
+        assertThat(Files.readAllBytes(target)).isEqualTo(TEST_INPUT.getBytes());
+        try (Stream<Path> files = Files.list(target.getParent())) {
+            assertThat(files).containsOnly(target);
+        }
+    }
+
+    @Test
+    public void shouldDeleteTemporaryFilesOfEarlierBuilds() throws Exception {
+        // Given
+        Path directory = Files.createTempDirectory("terser");
+        Path target = directory.resolve("test.js");
+        Path stale = directory.resolve(".test.js.6f1c2a3e-0b4d-4e5f-8a9b-0c1d2e3f4a5b.tmp");
+        Path other = directory.resolve(".other.tmp");
+        Files.write(stale, "partial".getBytes());
+        Files.write(other, "kept".getBytes());
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Files.setLastModifiedTime(other, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        ImmutableMinificationContext context = ImmutableMinificationContext.builder()
+                .terserSource(new File("/"))
+                .options("{}")
+                .charset(UTF_8)
+                .log(log).build();
+
+        Minification minification = ImmutableMinification.builder()
+                .source(Paths.get("foo"))
+                .target(target)
+                .result(TEST_INPUT)
+                .context(context)
+                .build();
+
+        // When
+        try (TargetFileWriter writer = new TargetFileWriter(1)) {
+            writer.write(minification);
+        }
+
+        // Then
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsOnly(target, other);
+        }
+    }
+
+    @Test
+    public void shouldSkipWriteWhenContentIsUnchanged() throws Exception {
+        // Given
+        Path target = Files.createTempDirectory("terser").resolve("test.js");
+        Files.write(target, TEST_INPUT.getBytes());
+        FileTime lastModified = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(target, lastModified);
+
+        ImmutableMinificationContext context = ImmutableMinificationContext.builder()
+                .terserSource(new File("/"))
+                .options("{}")
+                .charset(UTF_8)
+                .log(log).build();
+
+        Minification minification = ImmutableMinification.builder()
+                .source(Paths.get("foo"))
+                .target(target)
+                .result(TEST_INPUT)
+                .context(context)
+                .build();
+
+        // When
+        TargetFileWriter writer = new TargetFileWriter();
+        try (TargetFileWriter closeable = writer) {
+            writer.write(minification);
+        }
+
+        // Then
+        assertThat(Files.getLastModifiedTime(target)).isEqualTo(lastModified);
+        assertThat(writer.getUnchangedFiles()).isEqualTo(1);
+        assertThat(writer.getWrittenFiles()).isEqualTo(0);
+    }
+}
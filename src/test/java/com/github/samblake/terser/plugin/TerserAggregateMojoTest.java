@@ -0,0 +1,255 @@
+package com.github.samblake.terser.plugin;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.lifecycle.internal.MojoDescriptorCreator;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.descriptor.PluginDescriptorBuilder;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.classworlds.ClassWorld;
+import org.codehaus.plexus.classworlds.realm.ClassRealm;
+import org.codehaus.plexus.component.configurator.BasicComponentConfigurator;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class TerserAggregateMojoTest {
+
+    @Test
+    public void shouldReadModuleConfiguration() throws Exception {
+        // Given
+        Path targetDir = Files.createTempDirectory("terser");
+        MavenProject project = getProject("module-a", targetDir, "/src/a/*.js");
+
+        // When
+        List<TerserMojo> mojos = getReader(project).getTerserMojos();
+
+        // Then
+        assertThat(mojos).hasSize(1);
+        assertThat(mojos.get(0).getTerserSrc()).isEqualTo(TestUtils.getTerserPath().toFile());
+        assertThat(mojos.get(0).getTargetDir()).isEqualTo(targetDir.toFile());
+        assertThat(mojos.get(0).getJsSourceIncludes()).containsOnly("/src/a/*.js");
+        assertThat(mojos.get(0).getSuffix()).isEqualTo("min");
+    }
+
+    @Test
+    public void shouldReadEveryParameterOfModule() throws Exception {
+        // Given
+        Path targetDir = Files.createTempDirectory("terser");
+        Xpp3Dom variant = new Xpp3Dom("variant");
+        variant.addChild(value("name", "debug"));
+        variant.addChild(value("suffix", "debug"));
+        MavenProject project = getProject("module-a", targetDir, "/src/a/*.js",
+                list("jsExcludes", "jsExclude", "/src/a/*async*"),
+                list("lightweightIncludes", "lightweightInclude", "/src/a/*nullish*"),
+                list("variants", "variant"),
+                value("gzip", "true"),
+                value("splitSize", "1024"),
+                value("mode", "fast"));
+        ((Xpp3Dom)project.getPlugin(TerserAggregateMojo.PLUGIN_KEY).getExecutions().get(0).getConfiguration())
+                .getChild("variants").addChild(variant);
+
+        // When
+        List<TerserMojo> mojos = getReader(project).getTerserMojos();
+
+        // Then
+        TerserMojo mojo = mojos.get(0);
+        assertThat(mojo.getJsSourceExcludes()).containsOnly("/src/a/*async*");
+        assertThat(mojo.getLightweightIncludes()).containsOnly("/src/a/*nullish*");
+        assertThat(mojo.getVariants()).extracting(OutputVariant::getName).containsOnly("debug");
+        assertThat(mojo.isGzip()).isTrue();
+        assertThat(mojo.getSplitSize()).isEqualTo(1024);
+        assertThat(mojo.getMode()).isEqualTo("fast");
+        assertThat(mojo.getBudgetHistory()).isEqualTo(targetDir.resolve("terser-sizes.tsv").toFile());
+    }
+
+    @Test
+    public void shouldFailOnUnknownParameter() throws Exception {
+        // Given
+        Path targetDir = Files.createTempDirectory("terser");
+        MavenProject project = getProject("module-a", targetDir, "/src/a/*.js", value("gzipped", "true"));
+
+        // When
+        Throwable thrown = catchThrowable(() -> getReader(project).getTerserMojos());
+
+        // Then
+        assertThat(thrown).isInstanceOf(MojoExecutionException.class).hasMessageContaining("gzipped");
+    }
+
+    @Test
+    public void shouldWriteWithModuleOutputSettings() throws Exception {
+        // Given
+        Path targetDir = Files.createTempDirectory("terser");
+
+        TerserAggregateMojo mojo = getMojo();
+        mojo.setReactorProjects(Collections.singletonList(getProject("module-a", targetDir, "/src/a/*.js",
+                list("lightweightIncludes", "lightweightInclude", "/src/a/*nullish*"),
+                value("gzip", "true"))));
+
+        // When
+        mojo.execute();
+
+        // Then
+        assertThat(targetDir.resolve(Paths.get("src", "a", "test-es6.min.js.gz"))).exists();
+        assertThat(targetDir.resolve(Paths.get("src", "a", "test-nullish.min.js"))).exists();
+    }
+
+    @Test
+    public void shouldIgnoreModulesWithoutPlugin() throws Exception {
+        // Given
+        MavenProject project = new MavenProject(new Model());
+
+        // When
+        List<TerserMojo> mojos = getReader(project).getTerserMojos();
+
+        // Then
+        assertThat(mojos).isEmpty();
+    }
+
+    @Test
+    public void shouldMinifyAllModules() throws Exception {
+        // Given
+        Path targetDirA = Files.createTempDirectory("terser");
+        Path targetDirB = Files.createTempDirectory("terser");
+
+        TerserAggregateMojo mojo = getMojo();
+        mojo.setReactorProjects(Arrays.asList(
+                getProject("module-a", targetDirA, "/src/a/*.js"),
+                getProject("module-b", targetDirB, "/src/*.js")));
+
+        // When
+        mojo.execute();
+
+        // Then
+        assertThat(targetDirA.resolve(Paths.get("src", "a", "test-es6.min.js"))).exists();
+        assertThat(targetDirB.resolve(Paths.get("src", "test.min.js"))).exists();
+    }
+
+    @Test
+    public void shouldNotBeSkippedByPropertySkippingModuleExecutions() throws Exception {
+        // Given
+        Path targetDir = Files.createTempDirectory("terser");
+        Properties userProperties = new Properties();
+        userProperties.setProperty("terser.skip", "true");
+
+        PluginDescriptor plugin = getPluginDescriptor();
+        MojoDescriptor aggregate = plugin.getMojo("terser-aggregate");
+        Xpp3Dom configuration = new Xpp3Dom("configuration");
+        configuration.addChild(MojoDescriptorCreator.convert(aggregate).getChild("skip"));
+
+        TerserAggregateMojo mojo = getMojo();
+        mojo.setSession(getSession(userProperties));
+        mojo.setReactorProjects(Collections.singletonList(getProject("module-a", targetDir, "/src/*.js")));
+        new BasicComponentConfigurator().configureComponent(mojo, new XmlPlexusConfiguration(configuration),
+                new PluginParameterExpressionEvaluator(getSession(userProperties), new MojoExecution(aggregate)),
+                plugin.getClassRealm());
+
+        // When
+        mojo.execute();
+
+        // Then
+        assertThat(mojo.isSkip()).isFalse();
+        assertThat(targetDir.resolve(Paths.get("src", "test.min.js"))).exists();
+    }
+
+    private TerserAggregateMojo getMojo() throws Exception {
+        TerserAggregateMojo mojo = new TerserAggregateMojo();
+        mojo.setThreads(2);
+        mojo.setSession(getSession(new Properties()));
+        mojo.setPlugin(getPluginDescriptor());
+        return mojo;
+    }
+
+    private ModuleConfigurationReader getReader(MavenProject project) throws Exception {
+        PluginDescriptor plugin = getPluginDescriptor();
+        return new ModuleConfigurationReader(project, getSession(new Properties()),
+                plugin.getMojo(ModuleConfigurationReader.GOAL), new SystemStreamLog());
+    }
+
+    private static MavenSession getSession(Properties userProperties) {
+        DefaultMavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        request.setUserProperties(userProperties);
+        return new MavenSession(null, null, request, new DefaultMavenExecutionResult());
+    }
+
+    /**
+     * The descriptor generated for the plugin, as Maven uses it to configure the goals.
+     */
+    private static PluginDescriptor getPluginDescriptor() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                TerserAggregateMojoTest.class.getResourceAsStream("/META-INF/maven/plugin.xml"), UTF_8)) {
+            PluginDescriptor descriptor = new PluginDescriptorBuilder().build(reader);
+            descriptor.setClassRealm(new ClassRealm(new ClassWorld(), "terser",
+                    TerserAggregateMojoTest.class.getClassLoader()));
+            return descriptor;
+        }
+    }
+
+    private MavenProject getProject(String artifactId, Path targetDir, String include, Xpp3Dom... parameters) {
+        Xpp3Dom configuration = new Xpp3Dom("configuration");
+        Stream.of(parameters).forEach(configuration::addChild);
+        configuration.addChild(value("terserSrc", TestUtils.getTerserPath().toString()));
+        configuration.addChild(value("sourceDir", TestUtils.getBasePath().toString()));
+        configuration.addChild(value("targetDir", targetDir.toString()));
+
+        Xpp3Dom includes = new Xpp3Dom("jsSourceIncludes");
+        includes.addChild(value("jsSourceInclude", include));
+        configuration.addChild(includes);
+
+        PluginExecution execution = new PluginExecution();
+        execution.setId("js-minify");
+        execution.addGoal("terser");
+        execution.setConfiguration(configuration);
+
+        Plugin plugin = new Plugin();
+        plugin.setGroupId("com.github.samblake.terser");
+        plugin.setArtifactId("terser-maven-plugin");
+        plugin.addExecution(execution);
+
+        Build build = new Build();
+        build.setDirectory(targetDir.toString());
+        build.addPlugin(plugin);
+
+        Model model = new Model();
+        model.setArtifactId(artifactId);
+        model.setBuild(build);
+        return new MavenProject(model);
+    }
+
+    private Xpp3Dom list(String name, String itemName, String... values) {
+        Xpp3Dom dom = new Xpp3Dom(name);
+        Stream.of(values).forEach(value -> dom.addChild(value(itemName, value)));
+        return dom;
+    }
+
+    private Xpp3Dom value(String name, String value) {
+        Xpp3Dom dom = new Xpp3Dom(name);
+        dom.setValue(value);
+        return dom;
+    }
+}
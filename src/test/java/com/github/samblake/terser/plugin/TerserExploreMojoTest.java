@@ -0,0 +1,65 @@
+package com.github.samblake.terser.plugin;
+
+import com.github.samblake.terser.plugin.TerserExploreMojo.Measurement;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class TerserExploreMojoTest {
+
+    @Mock
+    private Log log;
+
+    @Test
+    public void shouldKeepNonDominatedMeasurements() {
+        // Given
+        Measurement fast = new Measurement("{compress: false}", 10, 900, 300);
+        Measurement small = new Measurement("{compress: {passes: 3}}", 40, 700, 200);
+        Measurement dominated = new Measurement("{mangle: false}", 20, 1000, 350);
+
+        // When
+        List<Measurement> front = TerserExploreMojo.paretoFront(Arrays.asList(fast, dominated, small));
+
+        // Then
+        assertThat(front).containsExactly(small, fast);
+    }
+
+    @Test
+    public void shouldReportCandidates() throws MojoFailureException, MojoExecutionException {
+        // Given
+        TerserExploreMojo mojo = new TerserExploreMojo();
+        mojo.setLog(log);
+        mojo.setTerserSrc(TestUtils.getTerserPath().toFile());
+        mojo.setSourceDir(TestUtils.getBasePath().toFile());
+        mojo.setTargetDir(Paths.get(System.getProperty("java.io.tmpdir")).toFile());
+        mojo.setJsSourceInclude("/src/**/*.js");
+        mojo.setSuffix("min");
+        mojo.setOptions("{}");
+        mojo.setEncoding("UTF-8");
+        mojo.setRepetitions(1);
+        mojo.setCandidates(Arrays.asList("{}", "{compress: false, mangle: false}"));
+
+        // When
+        mojo.execute();
+
+        // Then
+        ArgumentCaptor<CharSequence> messages = ArgumentCaptor.forClass(CharSequence.class);
+        verify(log, atLeastOnce()).info(messages.capture());
+        assertThat(messages.getAllValues()).anySatisfy(message ->
+                assertThat(message.toString()).startsWith("Non-dominated options").contains("{}"));
+    }
+}
@@ -2,14 +2,27 @@ package com.github.samblake.terser.plugin;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.Scanner;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonatype.plexus.build.incremental.BuildContext;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class TerserMojoTest {
 
@@ -55,6 +68,90 @@ public class TerserMojoTest {
         assertThat(Paths.get(System.getProperty("java.io.tmpdir")).resolve(Paths.get("src", "a"))).exists();
     }
 
+    @Test
+    public void shouldRunWithBundledTerser() throws MojoFailureException, MojoExecutionException {
+        // Given
+        final TerserMojo terserMojo = getTerserMojo();
+        terserMojo.setTerserSrc(null);
+
+        // When
+        terserMojo.execute();
+
+        // Then
+        assertThat(Paths.get(System.getProperty("java.io.tmpdir")).resolve(Paths.get("src", "test.min.js"))).exists();
+    }
+
+    @Test
+    public void shouldFailWhenOverBudget() throws MojoFailureException, MojoExecutionException {
+        // Given
+        final TerserMojo terserMojo = getTerserMojo();
+        terserMojo.setBudgets(Collections.singletonList(new SizeBudget("src/*.js", null, "1B", null)));
+
+        // Expect
+        expectedException.expect(MojoFailureException.class);
+
+        // When
+        terserMojo.execute();
+    }
+
+    @Test
+    public void shouldFailForInvalidBudget() throws MojoFailureException, MojoExecutionException {
+        // Given
+        final TerserMojo terserMojo = getTerserMojo();
+        terserMojo.setBudgets(Collections.singletonList(new SizeBudget("src/*.js", null, "ten KB", null)));
+
+        // Expect
+        expectedException.expect(MojoFailureException.class);
+        expectedException.expectMessage("Invalid size budget: Invalid size: ten KB");
+
+        // When
+        terserMojo.execute();
+    }
+
+    @Test
+    public void shouldFailForUnknownMode() throws MojoFailureException, MojoExecutionException {
+        // Given
+        final TerserMojo terserMojo = getTerserMojo();
+        terserMojo.setMode("quick");
+
+        // Expect
+        expectedException.expect(MojoFailureException.class);
+        expectedException.expectMessage("expected one of release, fast");
+
+        // When
+        terserMojo.execute();
+    }
+
+    @Test
+    public void shouldKeepUnchangedFilesInArchiveInIncrementalBuild() throws Exception {
+        // Given
+        final Path archive = Files.createTempDirectory("terser").resolve("assets.jar");
+        final BuildContext buildContext = mock(BuildContext.class);
+        final Scanner scanner = mock(Scanner.class);
+        when(buildContext.isIncremental()).thenReturn(true);
+        when(buildContext.hasDelta(any(File.class))).thenAnswer(invocation ->
+                !invocation.<File>getArgument(0).getName().endsWith(".js")
+                        || invocation.<File>getArgument(0).getName().equals("test-es6.js"));
+        when(buildContext.newScanner(any(File.class), anyBoolean())).thenReturn(scanner);
+        when(scanner.getIncludedFiles()).thenReturn(new String[] {"src/a/test-es6.js"});
+
+        final TerserMojo terserMojo = getTerserMojo();
+        terserMojo.setBuildContext(buildContext);
+        terserMojo.setTargetArchive(archive.toFile());
+
+        // When
+        terserMojo.execute();
+
+        // Then
+        final List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        assertThat(entries).containsExactly("src/a/test-async.min.js", "src/a/test-es6.min.js", "src/test.min.js");
+    }
+
     private TerserMojo getTerserMojo() {
         TerserMojo terserMojo = new TerserMojo();
         terserMojo.setVerbose(true);
@@ -9,8 +9,8 @@ import java.util.stream.Collectors;
 
 public class TestUtils {
 
-    public static final String TERSER_JS = "terser-5.21.0.js";
-    public static final String SOURCE_MAP_JS = "source-map-0.7.3.js";
+    public static final String TERSER_JS = "com/github/samblake/terser/plugin/minifier/terser-5.21.0.js";
+    public static final String SOURCE_MAP_JS = "com/github/samblake/terser/plugin/minifier/source-map-0.7.3.js";
 
     public static Path getBasePath() {
         try {
@@ -0,0 +1,85 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BundleSplitterTest {
+
+    @Test
+    public void shouldSplitBetweenWrappers() {
+        //given
+        String code = "(function () { var a = 1; })();\n"
+                + "!function () { var b = '}'; }();\n"
+                + "(function () {\n  var c = 3;\n})();\n";
+
+        //when
+        List<BundleSplitter.Segment> segments = BundleSplitter.split(code, 1);
+
+        //then
+        assertThat(getCode(code, segments)).containsExactly(
+                "(function () { var a = 1; })();\n",
+                "!function () { var b = '}'; }();\n",
+                "(function () {\n  var c = 3;\n})();\n");
+        assertThat(segments).extracting(BundleSplitter.Segment::getLine).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    public void shouldNotSplitInsideStringsTemplatesRegexesOrComments() {
+        //given
+        String code = "var a = `x ${ { b: 1 }.b };\n` + 'y';\n"
+                + "var c = /[/;]\\n;/g;\n"
+                + "/* d;\nvar e; */ var f = 1;\n";
+
+        //when
+        List<BundleSplitter.Segment> segments = BundleSplitter.split(code, 1);
+
+        //then
+        assertThat(getCode(code, segments)).containsExactly(
+                "var a = `x ${ { b: 1 }.b };\n` + 'y';\n",
+                "var c = /[/;]\\n;/g;\n",
+                "/* d;\nvar e; */ var f = 1;\n");
+    }
+
+    @Test
+    public void shouldOnlySplitWherePreviousStatementEnded() {
+        //given
+        String code = "if (a) b();\nelse c();\n"
+                + "var d = {}\n(e);\n"
+                + "function f() {}\nfunction g() {}\n";
+
+        //when
+        List<BundleSplitter.Segment> segments = BundleSplitter.split(code, 1);
+
+        //then
+        assertThat(getCode(code, segments)).containsExactly(
+                "if (a) b();\nelse c();\n",
+                "var d = {}\n(e);\n",
+                "function f() {}\n",
+                "function g() {}\n");
+    }
+
+    @Test
+    public void shouldNotSplitSmallSegmentsOrDirectives() {
+        //given
+        String code = "var a = 1;\nvar b = 2;\nvar c = 3;\n";
+
+        //when
+        List<BundleSplitter.Segment> segments = BundleSplitter.split(code, 15);
+        List<BundleSplitter.Segment> strict = BundleSplitter.split("'use strict';\n" + code, 1);
+
+        //then
+        assertThat(getCode(code, segments)).containsExactly("var a = 1;\nvar b = 2;\n", "var c = 3;\n");
+        assertThat(strict).hasSize(1);
+        assertThat(segments.get(1).getCode(code)).isEqualTo("\n\nvar c = 3;\n");
+    }
+
+    private static List<String> getCode(String code, List<BundleSplitter.Segment> segments) {
+        return segments.stream()
+                .map(segment -> code.substring(segment.getStart(), segment.getEnd()))
+                .collect(toList());
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void shouldOnlyBeAvailableWithTheEventApi() {
+        //when
+        boolean present = FlightRecorderEvents.isPresent("jdk.jfr.Event");
+        boolean missing = FlightRecorderEvents.isPresent("jdk.jfr.MissingEvent");
+
+        //then
+        assertThat(FlightRecorderEvents.isAvailable()).isEqualTo(present);
+        assertThat(missing).isFalse();
+    }
+}
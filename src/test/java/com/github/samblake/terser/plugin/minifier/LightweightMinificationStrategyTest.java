@@ -0,0 +1,98 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LightweightMinificationStrategyTest {
+    private final Log log = new SystemStreamLog();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldCollectFailuresOfAllFiles() throws IOException {
+        //given
+        Path terserFile = folder.getRoot().toPath().resolve("terser.js");
+        TerserMinificationStrategy others = mock(TerserMinificationStrategy.class);
+        when(others.execute(any())).thenThrow(new MinificationException(
+                Collections.singletonMap(terserFile, new IllegalStateException("Unexpected token"))));
+        LightweightMinificationStrategy strategy =
+                new LightweightMinificationStrategy(others, FailurePolicy.COLLECT_ALL);
+
+        //when
+        Throwable thrown = catchThrowable(() -> strategy.execute(getMinifications(terserFile)));
+
+        //then
+        assertThat(thrown).isInstanceOf(MinificationException.class);
+        assertThat(((MinificationException)thrown).getFailures())
+                .containsOnlyKeys(folder.getRoot().toPath().resolve("missing.js"), terserFile);
+    }
+
+    @Test
+    public void shouldStopOnFirstLightweightFailure() throws IOException {
+        //given
+        Path terserFile = folder.getRoot().toPath().resolve("terser.js");
+        TerserMinificationStrategy others = mock(TerserMinificationStrategy.class);
+        LightweightMinificationStrategy strategy =
+                new LightweightMinificationStrategy(others, FailurePolicy.FAIL_FAST);
+
+        //when
+        Throwable thrown = catchThrowable(() -> strategy.execute(getMinifications(terserFile)));
+
+        //then
+        assertThat(thrown).isInstanceOf(MinificationException.class);
+        assertThat(((MinificationException)thrown).getFailures())
+                .containsOnlyKeys(folder.getRoot().toPath().resolve("missing.js"));
+        verify(others, never()).execute(any());
+    }
+
+    private Set<Minification> getMinifications(final Path terserFile) throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Path present = directory.resolve("present.js");
+        Files.write(present, "var a = 1; // one".getBytes(UTF_8));
+        Files.write(terserFile, "var b = ;".getBytes(UTF_8));
+
+        MinificationContext lightweight = getContext(true);
+        Set<Minification> minifications = new HashSet<>();
+        minifications.add(getMinification(directory.resolve("missing.js"), lightweight));
+        minifications.add(getMinification(present, lightweight));
+        minifications.add(getMinification(terserFile, getContext(false)));
+        return minifications;
+    }
+
+    private static Minification getMinification(final Path source, final MinificationContext context) {
+        return ImmutableMinification.builder()
+                .source(source)
+                .target(source.resolveSibling(source.getFileName() + ".min"))
+                .context(context)
+                .build();
+    }
+
+    private MinificationContext getContext(final boolean lightweight) {
+        return ImmutableMinificationContext.builder()
+                .log(log)
+                .charset(UTF_8)
+                .options("{}")
+                .isLightweight(lightweight)
+                .build();
+    }
+}
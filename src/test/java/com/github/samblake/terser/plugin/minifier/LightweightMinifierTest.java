@@ -0,0 +1,82 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LightweightMinifierTest {
+    private final LightweightMinifier minifier = new LightweightMinifier();
+
+    @Test
+    public void shouldRemoveCommentsAndWhitespace() {
+        //given
+        String code = "/*! Licensed */\n"
+                + "// A comment\n"
+                + "function add(a, b) {\n"
+                + "    /* Adds */\n"
+                + "    return a + b;\n"
+                + "}\n";
+
+        //when
+        TerserResult result = minifier.minify(code);
+
+        //then
+        assertThat(result.getCode()).isEqualTo("/*! Licensed */function add(a,b){return a+b;}");
+        assertThat(result.getSourceMap()).isEmpty();
+    }
+
+    @Test
+    public void shouldKeepStringsTemplatesAndRegexes() {
+        //given
+        String code = "var a = 'x  // y', b = \"/* z */\";\n"
+                + "var c = `one  ${ { d: `two  ${ a }` }.d }  three`;\n"
+                + "function e(f) { return /a [/] b/g.test(f) / 2; }\n";
+
+        //when
+        TerserResult result = minifier.minify(code);
+
+        //then
+        assertThat(result.getCode()).isEqualTo("var a='x  // y',b=\"/* z */\";"
+                + "var c=`one  ${{d:`two  ${a}`}.d}  three`;"
+                + "function e(f){return/a [/] b/g.test(f)/2;}");
+    }
+
+    @Test
+    public void shouldKeepLineBreaksAndSpacesThatChangeTheMeaning() {
+        //given
+        String code = "function f() {\n  return\n  x\n}\n"
+                + "a\n++b\n"
+                + "c = d + +e - -g\n"
+                + "h = 1 .toString()\n";
+
+        //when
+        TerserResult result = minifier.minify(code);
+
+        //then
+        assertThat(result.getCode()).isEqualTo("function f(){return\nx}\n"
+                + "a\n++b\n"
+                + "c=d+ +e- -g\n"
+                + "h=1 .toString()");
+    }
+
+    @Test
+    public void shouldMapTokensToTheirSource() throws IOException {
+        //given
+        String code = "var a = 1\n\nvar b = 2\n";
+
+        //when
+        TerserResult result = minifier.minify(code, Optional.of("test.js"), Optional.of("test.min.js"));
+
+        //then
+        assertThat(result.getCode()).isEqualTo("var a=1\nvar b=2");
+        Map<String, Object> sourceMap = new ObjectMapper().readValue(result.getSourceMap().get(), Map.class);
+        assertThat(sourceMap).containsEntry("file", "test.min.js");
+        assertThat(sourceMap.get("sources")).asList().containsExactly("test.js");
+        assertThat(sourceMap).containsEntry("mappings", "AAAA,IAAI,CAAE,CAAE;AAER,IAAI,CAAE,CAAE");
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.samblake.terser.plugin.TestUtils.getTerserPath;
+import static java.lang.Integer.getInteger;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs tens of thousands of minifications through one long-lived {@link TerserMinifier}, and through a single session
+ * of the {@link ParallelTerserMinificationStrategy}, sampling the heap after a collection at regular intervals. Script
+ * objects live on the host heap, so values kept alive by bindings, unsettled promises or the proxies resolving them
+ * show up as retained heap; the global object of the single minifier is also checked for properties that pile up.
+ * Fails when the retained heap grows by more than the bound between the first sample, taken once the engines are
+ * warm, and the last samples.
+ * <p>
+ * Only runs when enabled, for example:
+ * <pre>
+ * mvn test -Dtest=MemorySoakTest -Dterser.soak=true -Dterser.soak.iterations=50000
+ * </pre>
+ */
+public class MemorySoakTest {
+    private static final int ITERATIONS = getInteger("terser.soak.iterations", 20000);
+    private static final int SAMPLES = getInteger("terser.soak.samples", 20);
+    private static final long MAX_GROWTH = Long.getLong("terser.soak.maxGrowth", 16L * 1024 * 1024);
+
+    private final Log log = new SystemStreamLog();
+
+    @BeforeClass
+    public static void checkEnabled() {
+        assumeTrue("Soak test not enabled", Boolean.getBoolean("terser.soak"));
+    }
+
+    @Test
+    public void shouldNotRetainMemoryInOneMinifier() {
+        final MinificationContext context = getContext();
+        final List<Long> samples = new ArrayList<>();
+        int globals = -1;
+
+        try (TerserMinifier minifier = new TerserMinifier()) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                final Minification result = minifier.execute(getMinification(context, i));
+                assertThat(result.getResult()).isPresent();
+
+                if ((i + 1) % interval() == 0) {
+                    samples.add(retainedHeap());
+                    if (globals < 0) {
+                        globals = minifier.getEngine().get().countGlobals();
+                    }
+                }
+            }
+
+            assertThat(minifier.getEngine().get().countGlobals()).as("Global properties").isEqualTo(globals);
+        }
+
+        assertBounded("One minifier", samples);
+    }
+
+    @Test
+    public void shouldNotRetainMemoryInParallelSession() {
+        final MinificationContext context = getContext();
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, threads);
+        final AtomicInteger minified = new AtomicInteger();
+        final List<Long> samples = new ArrayList<>();
+
+        try (MinificationSession session = strategy.open(minification -> minified.incrementAndGet(), threads * 2)) {
+            for (int i = 0; i < ITERATIONS; i++) {
+                session.submit(getMinification(context, i));
+
+                if ((i + 1) % interval() == 0) {
+                    samples.add(retainedHeap());
+                }
+            }
+        }
+
+        assertThat(minified.get()).isEqualTo(ITERATIONS);
+        assertBounded(format("Parallel session on %d threads", threads), samples);
+    }
+
+    /**
+     * Compares the lowest of the last few samples with the first, so a collection that happens to run while a
+     * minification is in progress doesn't fail the test.
+     */
+    private void assertBounded(final String name, final List<Long> samples) {
+        assertThat(samples.size()).as("Samples").isGreaterThan(1);
+        final long first = samples.get(0);
+        final long last = samples.subList(Math.max(1, samples.size() - 3), samples.size()).stream()
+                .mapToLong(Long::longValue)
+                .min()
+                .getAsLong();
+
+        log.info(format("%s: %d minifications, retained heap %s", name, ITERATIONS, samples.stream()
+                .map(sample -> (sample >> 20) + " MB")
+                .collect(joining(", "))));
+        assertThat(last - first).as("%s retained heap growth, bound %d bytes", name, MAX_GROWTH)
+                .isLessThanOrEqualTo(MAX_GROWTH);
+    }
+
+    private static int interval() {
+        return Math.max(1, ITERATIONS / SAMPLES);
+    }
+
+    /**
+     * Every input is different, so nothing is served from a cache.
+     */
+    private static Minification getMinification(final MinificationContext context, final int iteration) {
+        return ImmutableMinification.builder()
+                .source(Paths.get("soak" + iteration + ".js"))
+                .target(Paths.get("soak" + iteration + ".min.js"))
+                .code(format("function total%1$d(items) { var sum = %1$d; for (var i = 0; i < items.length; i++) {"
+                        + " sum += items[i].price * items[i].count; } return `total ${sum}`; }", iteration))
+                .context(context)
+                .build();
+    }
+
+    private MinificationContext getContext() {
+        return ImmutableMinificationContext.builder()
+                .log(log)
+                .terserSource(getTerserPath().toFile())
+                .charset(UTF_8)
+                .options("{}")
+                .build();
+    }
+
+    private static long retainedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
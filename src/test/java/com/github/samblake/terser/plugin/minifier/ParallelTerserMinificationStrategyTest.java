@@ -0,0 +1,227 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.github.samblake.terser.plugin.TestUtils.getBasePath;
+import static com.github.samblake.terser.plugin.TestUtils.getSourceMapPath;
+import static com.github.samblake.terser.plugin.TestUtils.getTerserPath;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class ParallelTerserMinificationStrategyTest {
+    private final Log log = new SystemStreamLog();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldMinifyWithWarmedUpMinifiers() {
+        //given
+        MinificationContext context = getContext(getTerserPath().toFile());
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+        strategy.warmUp(context);
+        Minification minification = ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-nullish.js")))
+                .target(Paths.get("foo"))
+                .context(context)
+                .build();
+
+        //when
+        List<Minification> results = strategy.execute(Collections.singleton(minification)).collect(toList());
+
+        //then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getResult()).get().isEqualTo("function foo(n){return n??1}");
+    }
+
+    @Test
+    public void shouldCancelWarmUp() {
+        //given
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+        strategy.warmUp(getContext(getTerserPath().toFile()));
+
+        //when
+        strategy.cancelWarmUp();
+
+        //then
+        assertThat(strategy.execute(Collections.emptySet())).isEmpty();
+    }
+
+    @Test
+    public void shouldReportFailedWarmUpOnExecution() {
+        //given
+        MinificationContext context = getContext(new File("missing-terser.js"));
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+        strategy.warmUp(context);
+        Minification minification = ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-nullish.js")))
+                .target(Paths.get("foo"))
+                .context(context)
+                .build();
+
+        //when
+        Throwable thrown = null;
+        try {
+            strategy.execute(Collections.singleton(minification)).collect(toList());
+        }
+        catch (RuntimeException e) {
+            thrown = e;
+        }
+
+        //then
+        assertThat(thrown).isNotNull();
+    }
+
+    @Test
+    public void shouldCollectAllFailures() throws Exception {
+        //given
+        MinificationContext context = getContext(getTerserPath().toFile());
+        Set<Minification> minifications = getMinifications(context, "var a = ;", "function (", "var ok = 1;");
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1,
+                RecyclingPolicy.never(), FailurePolicy.COLLECT_ALL);
+
+        //when
+        Throwable thrown = catchThrowable(() -> strategy.execute(minifications));
+
+        //then
+        assertThat(thrown).isInstanceOf(MinificationException.class);
+        assertThat(((MinificationException)thrown).getFailures()).hasSize(2);
+        assertThat(thrown).hasMessageStartingWith("Failed to minify 2 files:");
+    }
+
+    @Test
+    public void shouldStopOnFirstFailure() throws Exception {
+        //given
+        MinificationContext context = getContext(getTerserPath().toFile());
+        Set<Minification> minifications = getMinifications(context, "var a = ;", "function (", "var ok = 1;");
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1,
+                RecyclingPolicy.never(), FailurePolicy.FAIL_FAST);
+
+        //when
+        Throwable thrown = catchThrowable(() -> strategy.execute(minifications));
+
+        //then
+        assertThat(thrown).isInstanceOf(MinificationException.class);
+        assertThat(((MinificationException)thrown).getFailures()).hasSize(1);
+    }
+
+    @Test
+    public void shouldDeliverResultsWhileFilesAreSubmitted() throws Exception {
+        //given
+        MinificationContext context = getContext(getTerserPath().toFile());
+        Set<Minification> minifications = getMinifications(context, "var a = 1;", "var b = 2;", "var c = 3;");
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+        List<Minification> results = new CopyOnWriteArrayList<>();
+        int deliveredBeforeLast;
+
+        //when
+        try (MinificationSession session = strategy.open(results::add, 1)) {
+            Iterator<Minification> files = minifications.iterator();
+            session.submit(files.next());
+            session.submit(files.next());
+            session.submit(files.next());
+            deliveredBeforeLast = results.size();
+        }
+
+        //then
+        assertThat(deliveredBeforeLast).isGreaterThanOrEqualTo(2);
+        assertThat(results).extracting(minification -> minification.getResult().get())
+                .containsExactlyInAnyOrder("var a=1;", "var b=2;", "var c=3;");
+    }
+
+    @Test
+    public void shouldRejectFilesAfterFirstFailure() throws Exception {
+        //given
+        MinificationContext context = getContext(getTerserPath().toFile());
+        Minification failing = getMinifications(context, "var a = ;").iterator().next();
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+        List<Minification> failed = new CopyOnWriteArrayList<>();
+        MinificationSession session = strategy.open(new MinificationListener() {
+            @Override
+            public void minified(Minification minification) {
+            }
+
+            @Override
+            public void failed(Minification minification, Throwable failure) {
+                failed.add(minification);
+            }
+        }, 1);
+
+        //when
+        session.submit(failing);
+        Throwable thrown = catchThrowable(() -> session.submit(failing));
+
+        //then
+        assertThat(thrown).isInstanceOf(MinificationException.class);
+        assertThat(failed).containsExactly(failing);
+        assertThat(catchThrowable(session::close)).isInstanceOf(MinificationException.class);
+    }
+
+    @Test
+    public void shouldMinifyLargeFileInSegments() throws Exception {
+        //given
+        MinificationContext context = ImmutableMinificationContext.copyOf(getContext(getTerserPath().toFile()))
+                .withOptions("{sourceMap: {url: \"file0.min.js.map\"}}")
+                .withSplitSize(10)
+                .withSourceMapSource(Optional.of(getSourceMapPath().toFile()));
+        Set<Minification> minifications = getMinifications(context,
+                "(function () { var first = 1; console.log(first); })();\n"
+                        + "(function () { var second = 2; console.log(second); })();\n");
+        ParallelTerserMinificationStrategy strategy = new ParallelTerserMinificationStrategy(log, 1);
+
+        //when
+        List<Minification> results = strategy.execute(minifications).collect(toList());
+
+        //then
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getResult()).get().isEqualTo("console.log(1);\nconsole.log(2);"
+                + "\n//# sourceMappingURL=file0.min.js.map");
+        // The second segment is generated on line 2 from line 2 of the original
+        assertThat(results.get(0).getSourceMap()).get().asString()
+                .contains("\"names\":[\"console\",\"log\"]")
+                .contains("\"mappings\":\"AAA8BA,QAAQC,IAAX;AACID,QAAQC,IAAX\"");
+    }
+
+    private Set<Minification> getMinifications(MinificationContext context, String... sources) throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Set<Minification> minifications = new HashSet<>();
+        for (int i = 0; i < sources.length; i++) {
+            Path source = directory.resolve("file" + i + ".js");
+            Files.write(source, sources[i].getBytes(UTF_8));
+            minifications.add(ImmutableMinification.builder()
+                    .source(source)
+                    .target(directory.resolve("file" + i + ".min.js"))
+                    .context(context)
+                    .build());
+        }
+        return minifications;
+    }
+
+    private MinificationContext getContext(File terser) {
+        return ImmutableMinificationContext.builder()
+                .log(log)
+                .terserSource(terser)
+                .charset(UTF_8)
+                .options("{}")
+                .build();
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.samblake.terser.plugin.TestUtils.getBasePath;
+import static com.github.samblake.terser.plugin.TestUtils.getTerserPath;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecyclingMinifierTest {
+    private final Log log = new SystemStreamLog();
+
+    @Test
+    public void shouldPrepareAndRecycleAccordingToPolicy() {
+        RecyclingPolicy policy = ImmutableRecyclingPolicy.builder().maxFiles(5).build();
+
+        assertThat(policy.isEnabled()).isTrue();
+        assertThat(policy.shouldPrepare(3, 0)).isFalse();
+        assertThat(policy.shouldPrepare(4, 0)).isTrue();
+        assertThat(policy.shouldRecycle(4, 0)).isFalse();
+        assertThat(policy.shouldRecycle(5, 0)).isTrue();
+        assertThat(RecyclingPolicy.never().shouldRecycle(Integer.MAX_VALUE, Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    public void shouldLetOneWorkerRecycleWhenHeapGrowthIsReached() {
+        //given
+        HeapGrowthTrigger trigger = new HeapGrowthTrigger(1);
+        HeapGrowthTrigger disabled = new HeapGrowthTrigger(0);
+        List<byte[]> retained = new ArrayList<>();
+
+        //when
+        while (trigger.getGrowth() < 1) {
+            retained.add(new byte[1024 * 1024]);
+            System.gc();
+        }
+
+        //then
+        assertThat(trigger.claimRecycling()).isTrue();
+        assertThat(trigger.claimRecycling()).isFalse();
+        assertThat(disabled.claimPreparation()).isFalse();
+        assertThat(disabled.claimRecycling()).isFalse();
+        assertThat(retained).isNotEmpty();
+    }
+
+    @Test
+    public void shouldKeepMinifyingAcrossRecycledMinifiers() {
+        //given
+        Minification minification = getMinification();
+        RecyclingPolicy policy = ImmutableRecyclingPolicy.builder().maxFiles(2).build();
+
+        //when
+        try (RecyclingMinifier minifier = new RecyclingMinifier(log, policy)) {
+            for (int i = 0; i < 5; i++) {
+                //then
+                assertThat(minifier.execute(minification).getResult()).get().isEqualTo(
+                        "function foo(n){return n??1}");
+            }
+        }
+    }
+
+    @Test
+    public void shouldCreateNewMinifierWhenReplacementFails() {
+        //given
+        Minification minification = getMinification();
+        RecyclingPolicy policy = ImmutableRecyclingPolicy.builder().maxFiles(5).build();
+        AtomicInteger prepared = new AtomicInteger();
+
+        //when
+        try (RecyclingMinifier minifier = new RecyclingMinifier(log, policy, new TerserMinifier(),
+                new HeapGrowthTrigger(0)) {
+            @Override
+            CompletableFuture<TerserMinifier> prepare(final MinificationContext context) {
+                prepared.incrementAndGet();
+                CompletableFuture<TerserMinifier> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new IllegalStateException("Failed to load Terser"));
+                return failed;
+            }
+        }) {
+            for (int i = 0; i < 12; i++) {
+                //then
+                assertThat(minifier.execute(minification).getResult()).get().isEqualTo(
+                        "function foo(n){return n??1}");
+            }
+        }
+        assertThat(prepared).hasValue(2);
+    }
+
+    private Minification getMinification() {
+        MinificationContext context = ImmutableMinificationContext.builder()
+                .log(log)
+                .terserSource(getTerserPath().toFile())
+                .charset(UTF_8)
+                .options("{}")
+                .build();
+        return ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-nullish.js")))
+                .target(Paths.get("foo"))
+                .context(context)
+                .build();
+    }
+}
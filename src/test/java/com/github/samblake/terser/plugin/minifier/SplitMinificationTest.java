@@ -0,0 +1,55 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SplitMinificationTest {
+    // 21 characters in 30 bytes per statement
+    private static final String CODE = "var a = 'ééééééééé';\nvar b = 'ééééééééé';\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldSplitFilesWithMoreCharactersThanSplitSize() throws IOException {
+        //given
+        Minification minification = getMinification(CODE.length() / 2);
+
+        //then
+        assertThat(SplitMinification.split(minification)).isPresent();
+    }
+
+    @Test
+    public void shouldNotSplitFilesWithMoreBytesThanSplitSizeOnly() throws IOException {
+        //given
+        Minification minification = getMinification(CODE.length());
+
+        //then
+        assertThat(CODE.getBytes(UTF_8).length).isGreaterThan(CODE.length());
+        assertThat(SplitMinification.split(minification)).isEmpty();
+    }
+
+    private Minification getMinification(final long splitSize) throws IOException {
+        Path source = folder.getRoot().toPath().resolve("bundle.js");
+        Files.write(source, CODE.getBytes(UTF_8));
+        return ImmutableMinification.builder()
+                .source(source)
+                .target(folder.getRoot().toPath().resolve("bundle.min.js"))
+                .context(ImmutableMinificationContext.builder()
+                        .log(new SystemStreamLog())
+                        .charset(UTF_8)
+                        .options("{}")
+                        .splitSize(splitSize)
+                        .build())
+                .build();
+    }
+}
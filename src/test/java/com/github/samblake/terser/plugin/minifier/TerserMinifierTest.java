@@ -1,5 +1,8 @@
 package com.github.samblake.terser.plugin.minifier;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.junit.Rule;
@@ -8,14 +11,21 @@ import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.samblake.terser.plugin.TestUtils.getBasePath;
 import static com.github.samblake.terser.plugin.TestUtils.getSourceMapPath;
 import static com.github.samblake.terser.plugin.TestUtils.getTerserPath;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TerserMinifierTest {
@@ -60,6 +70,47 @@ public class TerserMinifierTest {
                 "[4,9,16,25,29].find((function(n,u,e){return value>18}));");
     }
 
+    @Test
+    public void shouldMinifyVariantsFromOneParse() {
+        //given
+        MinificationContext context = contextBuilder.options("{}").build();
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-es6.js")))
+                .target(Paths.get("foo"))
+                .context(context)
+                .addVariants(com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                        .source(getBasePath().resolve(Paths.get("src", "a", "test-es6.js")))
+                        .target(Paths.get("foo.top"))
+                        .variant("toplevel")
+                        .context(ImmutableMinificationContext.copyOf(context).withOptions("{toplevel:true}"))
+                        .build())
+                .build();
+        //when
+        minification = new TerserMinifier().execute(minification);
+        //then
+        assertThat(minification.getResult()).get().isEqualTo(
+                "let numbers=[4,9,16,25,29],first=numbers.find(myFunction);function myFunction(n,u,t){return value>18}");
+        assertThat(minification.getVariants()).hasSize(1);
+        assertThat(minification.getVariants().get(0).getVariant()).contains("toplevel");
+        assertThat(minification.getVariants().get(0).getResult()).get().isEqualTo(
+                "[4,9,16,25,29].find((function(n,u,e){return value>18}));");
+    }
+
+    @Test
+    public void shouldMinifyInFastMode() {
+        //given
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-es6.js")))
+                .target(Paths.get("foo"))
+                .context(contextBuilder.options(TerserMode.FAST.apply("{toplevel:true}")).build())
+                .build();
+        //when
+        minification = new TerserMinifier().execute(minification);
+        //then
+        assertThat(minification.getResult()).get().isEqualTo(
+                "let e=[4,9,16,25,29];let n=e.find(t);function t(e,n,t){return value>18}");
+    }
+
     @Test
     public void shouldMinifyNullishCoalescing() {
         //given
@@ -94,4 +145,98 @@ public class TerserMinifierTest {
                         + "\"AAAA,IAAIA,QAAU,CAAC,EAAG,EAAG,GAAI,GAAI,IACzBC,MAAQD,QAAQE,KAAKC,YAEzB,SAASA,WAAWF,EAAOG,EAAOC,GAC9B,OAAOC,MAAQ,EACnB\"}");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldGenerateSourceMapsWithBundledTerser() {
+        //given
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-es6.js")))
+                .target(Paths.get("foo"))
+                .context(com.github.samblake.terser.plugin.minifier.ImmutableMinificationContext.builder()
+                        .log(log)
+                        .charset(UTF_8)
+                        .options("{sourceMap: true}")
+                        .build())
+                .build();
+        //when
+        minification = new TerserMinifier().execute(minification);
+        //then
+        assertThat(minification.getResult()).get().isEqualTo(
+                "let numbers=[4,9,16,25,29],first=numbers.find(myFunction);function myFunction(n,u,t){return value>18}");
+        assertThat(minification.getSourceMap()).get().asString().startsWith("{\"version\":3");
+    }
+
+    @Test
+    public void shouldMinifyAfterWarmUp() {
+        //given
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-nullish.js")))
+                .target(Paths.get("foo"))
+                .context(contextBuilder
+                        .options("{}")
+                        .compilationSettings(ImmutableCompilationSettings.builder()
+                                .compilerThreads(1)
+                                .multiTier(true)
+                                .warmUpIterations(2)
+                                .build())
+                        .build())
+                .build();
+        //when
+        minification = new TerserMinifier().execute(minification);
+        //then
+        assertThat(minification.getResult()).get().isEqualTo(
+                "function foo(n){return n??1}");
+    }
+
+    @Test
+    public void shouldRecordFlightRecorderEvents() throws Exception {
+        //given
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(getBasePath().resolve(Paths.get("src", "a", "test-nullish.js")))
+                .target(Paths.get("foo"))
+                .context(contextBuilder.options("{}").build())
+                .build();
+        Path dump = Files.createTempFile("terser", ".jfr");
+        //when
+        try (Recording recording = new Recording()) {
+            recording.enable("com.github.samblake.terser.EngineCreation");
+            recording.enable("com.github.samblake.terser.Minification");
+            recording.start();
+            new TerserMinifier().execute(minification);
+            recording.stop();
+            recording.dump(dump);
+        }
+        //then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        assertThat(events).extracting(event -> event.getEventType().getName())
+                .contains("com.github.samblake.terser.EngineCreation", "com.github.samblake.terser.Minification");
+        assertThat(events).filteredOn(event -> event.getEventType().getName().endsWith("Minification"))
+                .allSatisfy(event -> {
+                    assertThat(event.getString("file")).endsWith("test-nullish.js");
+                    assertThat(event.getLong("bytesOut")).isEqualTo(28);
+                });
+    }
+
+    @Test
+    public void shouldCancelMinificationInProgress() throws Exception {
+        //given
+        Path source = Files.createTempFile("terser", ".js");
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            code.append("function f").append(i).append("(a, b) { return a + b * ").append(i).append("; }\n");
+        }
+        Files.write(source, code.toString().getBytes(UTF_8));
+        Minification minification = com.github.samblake.terser.plugin.minifier.ImmutableMinification.builder()
+                .source(source)
+                .target(Paths.get("foo"))
+                .context(contextBuilder.options("{}").build())
+                .build();
+        TerserMinifier minifier = new TerserMinifier().prepare(minification.getContext());
+        CompletableFuture<Minification> result = CompletableFuture.supplyAsync(() -> minifier.execute(minification));
+        //when
+        Thread.sleep(500);
+        minifier.cancel();
+        //then
+        assertThat(catchThrowable(() -> result.get(10, TimeUnit.SECONDS))).isInstanceOf(ExecutionException.class);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.github.samblake.terser.plugin.minifier;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.github.samblake.terser.plugin.TestUtils.getSourceMapPath;
+import static com.github.samblake.terser.plugin.TestUtils.getTerserPath;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TerserServiceTest {
+    private static TerserService service;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        Source terser = Source.newBuilder("js", getTerserPath().toFile()).build();
+        Source sourceMap = Source.newBuilder("js", getSourceMapPath().toFile()).build();
+        service = new TerserService(terser, Optional.of(sourceMap), 2, 1024 * 1024);
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        service.close();
+    }
+
+    @Test
+    public void shouldMinifyAndCacheResults() {
+        //given
+        String code = "function add(first, second) { return first + second; }";
+        long misses = service.getCacheMisses();
+        long hits = service.getCacheHits();
+        //when
+        TerserResult first = service.minify(code, "{}");
+        TerserResult second = service.minify(code.getBytes(UTF_8), UTF_8, "{}");
+        //then
+        assertThat(first.getCode()).isEqualTo("function add(n,d){return n+d}");
+        assertThat(second).isSameAs(first);
+        assertThat(service.getCacheMisses()).isEqualTo(misses + 1);
+        assertThat(service.getCacheHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void shouldMinifyConcurrently() {
+        //given
+        List<CompletableFuture<TerserResult>> futures = new ArrayList<>();
+        //when
+        for (int i = 0; i < 8; i++) {
+            String code = "var value" + i + " = function (first) { return first.length; };";
+            futures.add(CompletableFuture.supplyAsync(() -> service.minify(code, "{sourceMap: true}")));
+        }
+        //then
+        for (int i = 0; i < futures.size(); i++) {
+            TerserResult result = futures.get(i).join();
+            assertThat(result.getCode()).isEqualTo("var value" + i + "=function(n){return n.length};");
+            assertThat(result.getSourceMap()).isPresent();
+        }
+    }
+
+    @Test
+    public void shouldApplyNestedOptions() {
+        //given
+        String code = "function add(first, second) { return first + second; }";
+        //when
+        TerserResult result = service.minify(code, "{mangle: false, format: {beautify: true}}");
+        //then
+        assertThat(result.getCode()).isEqualTo("function add(first, second) {\n    return first + second;\n}");
+    }
+
+    @Test
+    public void shouldReportPhaseTimings() {
+        //given
+        String code = "function subtract(first, second) { return first - second; }";
+        //when
+        TerserResult result = service.minify(code, "{timings: true}");
+        //then
+        assertThat(result.getTimings()).containsKeys("parse", "compress", "mangle", "format", "total");
+        assertThat(service.minify(code, "{}").getTimings()).isEmpty();
+    }
+
+    @Test
+    public void shouldNotExposeHostAccess() {
+        //given
+        try (Context context = TerserEngine.createContext(ImmutableCompilationSettings.builder().build())) {
+            //when
+            String globals = context.eval("js", "[typeof Java, typeof Polyglot, typeof Graal, typeof load].join()")
+                    .toString();
+            //then
+            assertThat(globals).isEqualTo("undefined,undefined,undefined,undefined");
+        }
+    }
+
+    @Test
+    public void shouldCloseCreatedEnginesWhenOneFails() {
+        //given
+        TerserEngine created = mock(TerserEngine.class);
+        AtomicInteger count = new AtomicInteger();
+        Supplier<TerserEngine> engines = () -> {
+            if (count.incrementAndGet() == 2) {
+                throw new IllegalStateException("Invalid Terser source");
+            }
+            return created;
+        };
+        //when
+        Throwable thrown = catchThrowable(() -> new TerserService(engines, 3, 0));
+        //then
+        assertThat(thrown).isInstanceOf(IllegalStateException.class).hasMessage("Invalid Terser source");
+        verify(created, times(2)).close();
+    }
+}